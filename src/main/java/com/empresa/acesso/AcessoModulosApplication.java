@@ -2,8 +2,10 @@ package com.empresa.acesso;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class AcessoModulosApplication {
     public static void main(String[] args) {
         SpringApplication.run(AcessoModulosApplication.class, args);
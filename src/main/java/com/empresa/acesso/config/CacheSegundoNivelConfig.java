@@ -0,0 +1,69 @@
+package com.empresa.acesso.config;
+
+import com.empresa.acesso.service.CatalogoModulos;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+
+/**
+ * Cache de segundo nível do Hibernate com Caffeine JCache, e métricas de cada região a partir
+ * das estatísticas do Hibernate: acertos, faltas e taxa de acerto, em /actuator/metrics.
+ */
+@Configuration
+public class CacheSegundoNivelConfig {
+    
+    // O CacheManager é criado aqui porque o Hibernate converte hibernate.javax.cache.uri em URL,
+    // e o Caffeine não lê URLs de dentro do jar executável; com "classpath:" ele lê o recurso
+    @Bean(destroyMethod = "close")
+    public CacheManager cacheManagerSegundoNivel() {
+        return Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+            .getCacheManager(URI.create("classpath:cache-hibernate.conf"), getClass().getClassLoader());
+    }
+    
+    @Bean
+    public HibernatePropertiesCustomizer cacheSegundoNivel(CacheManager cacheManagerSegundoNivel) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, cacheManagerSegundoNivel);
+    }
+    
+    @Bean
+    public MeterBinder metricasCacheSegundoNivel(EntityManagerFactory entityManagerFactory) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        return registry -> {
+            for (String regiao : CatalogoModulos.REGIOES_CACHE) {
+                FunctionCounter.builder("hibernate.cache.requisicoes", statistics,
+                        s -> s.getDomainDataRegionStatistics(regiao).getHitCount())
+                    .tag("regiao", regiao)
+                    .tag("resultado", "acerto")
+                    .register(registry);
+                FunctionCounter.builder("hibernate.cache.requisicoes", statistics,
+                        s -> s.getDomainDataRegionStatistics(regiao).getMissCount())
+                    .tag("regiao", regiao)
+                    .tag("resultado", "falta")
+                    .register(registry);
+                Gauge.builder("hibernate.cache.taxa.acerto", statistics,
+                        s -> taxaAcerto(s.getDomainDataRegionStatistics(regiao)))
+                    .tag("regiao", regiao)
+                    .description("Acertos sobre o total de consultas à região desde o início do nó")
+                    .register(registry);
+            }
+        };
+    }
+    
+    private static double taxaAcerto(CacheRegionStatistics regiao) {
+        long total = regiao.getHitCount() + regiao.getMissCount();
+        return total == 0 ? 0 : (double) regiao.getHitCount() / total;
+    }
+}
@@ -0,0 +1,51 @@
+package com.empresa.acesso.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+
+/**
+ * Pool principal da aplicação e um pool pequeno e separado para a reserva de blocos de protocolo.
+ * A reserva é feita por quem já segura uma conexão do pool principal; no mesmo pool, com todas as
+ * conexões presas por criações esperando a reserva, ela esperaria por uma segunda conexão até o
+ * connection-timeout. Os dois pools usam as mesmas configurações spring.datasource.hikari.*, e
+ * ambos aparecem no health e nas métricas do Hikari.
+ */
+@Configuration
+public class DataSourceConfig {
+    
+    public static final String PROTOCOLO = "protocoloDataSource";
+    
+    private static final String PROPRIEDADES_HIKARI = "spring.datasource.hikari";
+    
+    // Declarar um segundo DataSource desliga o da auto-configuração; este é o mesmo que ela criaria
+    @Bean
+    @Primary
+    @ConfigurationProperties(PROPRIEDADES_HIKARI)
+    public HikariDataSource dataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+    
+    @Bean(PROTOCOLO)
+    @Qualifier(PROTOCOLO)
+    public HikariDataSource protocoloDataSource(
+            DataSourceProperties properties,
+            Environment environment,
+            @Value("${protocolo.maximo-conexoes:2}") int maximoConexoes) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        Binder.get(environment).bind(PROPRIEDADES_HIKARI, Bindable.ofInstance(dataSource));
+        // Tamanho próprio: as reservas são serializadas pelo gerador e duram milissegundos
+        dataSource.setPoolName("protocolo");
+        dataSource.setMaximumPoolSize(maximoConexoes);
+        dataSource.setMinimumIdle(1);
+        return dataSource;
+    }
+}
@@ -1,5 +1,6 @@
 package com.empresa.acesso.config;
 
+import com.empresa.acesso.security.ClienteSistemaFilter;
 import io.swagger.v3.oas.models.Components;
 import io.swagger.v3.oas.models.OpenAPI;
 import io.swagger.v3.oas.models.info.Info;
@@ -23,6 +24,10 @@ public class OpenApiConfig {
                 .addSecuritySchemes("Bearer Authentication", new SecurityScheme()
                     .type(SecurityScheme.Type.HTTP)
                     .scheme("bearer")
-                    .bearerFormat("JWT")));
+                    .bearerFormat("JWT"))
+                .addSecuritySchemes("Chave de Sistema", new SecurityScheme()
+                    .type(SecurityScheme.Type.APIKEY)
+                    .in(SecurityScheme.In.HEADER)
+                    .name(ClienteSistemaFilter.CABECALHO)));
     }
 }
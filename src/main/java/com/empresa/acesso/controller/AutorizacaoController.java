@@ -0,0 +1,49 @@
+package com.empresa.acesso.controller;
+
+import com.empresa.acesso.dto.DecisaoAcessoResponse;
+import com.empresa.acesso.dto.VerificarAcessosRequest;
+import com.empresa.acesso.service.AutorizacaoService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Exclusivo de sistemas clientes, autenticados pelo cabeçalho X-Api-Key com uma chave cadastrada
+ * em {@code autorizacao.clientes}. Tokens de usuários finais recebem 403: as respostas revelam
+ * os acessos de qualquer usuário.
+ */
+@RestController
+@RequestMapping("/api/autorizacoes")
+@RequiredArgsConstructor
+@SecurityRequirement(name = "Chave de Sistema")
+@Tag(name = "Autorizações", description = "Decisões de acesso a módulos para outros sistemas, autenticados por chave de sistema")
+public class AutorizacaoController {
+    
+    private final AutorizacaoService autorizacaoService;
+    
+    @GetMapping("/usuarios/{usuarioId}/modulos/{moduloId}")
+    @Operation(summary = "Verificar acesso", description = "Informa se o usuário possui acesso ativo ao módulo")
+    public ResponseEntity<DecisaoAcessoResponse> verificarAcesso(
+            @PathVariable Long usuarioId,
+            @PathVariable Long moduloId) {
+        return ResponseEntity.ok(DecisaoAcessoResponse.builder()
+            .usuarioId(usuarioId)
+            .moduloId(moduloId)
+            .permitido(autorizacaoService.possuiAcesso(usuarioId, moduloId))
+            .build());
+    }
+    
+    @PostMapping("/lote")
+    @Operation(summary = "Verificar acessos em lote",
+        description = "Verifica vários pares de usuário e módulo, retornando as decisões na ordem enviada")
+    public ResponseEntity<List<DecisaoAcessoResponse>> verificarAcessos(
+            @Valid @RequestBody VerificarAcessosRequest request) {
+        return ResponseEntity.ok(autorizacaoService.verificar(request.getConsultas()));
+    }
+}
@@ -1,15 +1,18 @@
 package com.empresa.acesso.controller;
 
 import com.empresa.acesso.dto.ModuloResponse;
+import com.empresa.acesso.service.CatalogoSnapshot;
 import com.empresa.acesso.service.ModuloService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -20,11 +23,16 @@ import java.util.List;
 @Tag(name = "Módulos", description = "Consulta de módulos disponíveis")
 public class ModuloController {
     
+    // A consulta exige autenticação: nenhum cache compartilhado guarda, e o cliente revalida pelo ETag
+    private static final CacheControl CACHE_CATALOGO = CacheControl.noCache().cachePrivate();
+    
     private final ModuloService moduloService;
     
     @GetMapping
     @Operation(summary = "Listar módulos", description = "Lista todos os módulos disponíveis")
-    public ResponseEntity<List<ModuloResponse>> listarModulos() {
-        return ResponseEntity.ok(moduloService.listarModulosDisponiveis());
+    public ResponseEntity<List<ModuloResponse>> listarModulos(WebRequest request) {
+        CatalogoSnapshot catalogo = moduloService.catalogo();
+        return RespostaCondicional.responder(request, moduloService.etagCatalogo(catalogo), CACHE_CATALOGO,
+            () -> moduloService.listarModulosDisponiveis(catalogo));
     }
 }
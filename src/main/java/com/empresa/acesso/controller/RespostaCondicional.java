@@ -0,0 +1,28 @@
+package com.empresa.acesso.controller;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.function.Supplier;
+
+/**
+ * GET condicional com o ETag calculado antes da resposta: se o If-None-Match do cliente
+ * corresponde, devolve 304 sem chamar o fornecedor do corpo, ou seja, sem carregar nem serializar
+ * nada. Se o conteúdo mudar entre o ETag e o corpo, o cliente recebe o corpo novo com o ETag
+ * anterior e só busca de novo na próxima consulta; o contrário não acontece.
+ */
+final class RespostaCondicional {
+    
+    private RespostaCondicional() {
+    }
+    
+    static <T> ResponseEntity<T> responder(
+            WebRequest request, String etag, CacheControl cacheControl, Supplier<T> corpo) {
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(cacheControl).build();
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(cacheControl).body(corpo.get());
+    }
+}
@@ -2,6 +2,8 @@ package com.empresa.acesso.controller;
 
 import com.empresa.acesso.dto.*;
 import com.empresa.acesso.entity.enums.StatusSolicitacao;
+import com.empresa.acesso.security.UsuarioAutenticado;
+import com.empresa.acesso.service.ExportacaoSolicitacoes;
 import com.empresa.acesso.service.SolicitacaoService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
@@ -10,12 +12,23 @@ import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.Callable;
 
 @RestController
 @RequestMapping("/api/solicitacoes")
@@ -24,19 +37,35 @@ import java.time.LocalDateTime;
 @Tag(name = "Solicitações", description = "Gerenciamento de solicitações de acesso a módulos")
 public class SolicitacaoController {
     
+    // Detalhe é do usuário: nenhum cache compartilhado guarda, e o cliente revalida a cada consulta
+    private static final CacheControl CACHE_DETALHE = CacheControl.noCache().cachePrivate();
+    
     private final SolicitacaoService solicitacaoService;
+    private final ExportacaoSolicitacoes exportacaoSolicitacoes;
     
     @PostMapping
     @Operation(summary = "Criar solicitação", description = "Cria uma nova solicitação de acesso a módulos")
     public ResponseEntity<CriarSolicitacaoResponse> criarSolicitacao(
             @Valid @RequestBody CriarSolicitacaoRequest request,
-            Authentication authentication) {
+            @AuthenticationPrincipal UsuarioAutenticado usuario) {
         CriarSolicitacaoResponse response = solicitacaoService.criarSolicitacao(
-            request, authentication.getName()
+            request, usuario.getId()
         );
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
     
+    @PostMapping("/lote")
+    @Operation(summary = "Criar solicitações em lote",
+        description = "Cria várias solicitações de uma vez, retornando o resultado de cada item na ordem enviada")
+    public ResponseEntity<List<ResultadoSolicitacaoLoteResponse>> criarSolicitacoesEmLote(
+            @Valid @RequestBody CriarSolicitacoesLoteRequest request,
+            @AuthenticationPrincipal UsuarioAutenticado usuario) {
+        List<ResultadoSolicitacaoLoteResponse> response = solicitacaoService.criarSolicitacoesEmLote(
+            request.getSolicitacoes(), usuario.getId()
+        );
+        return ResponseEntity.ok(response);
+    }
+    
     @GetMapping
     @Operation(summary = "Listar solicitações", description = "Lista solicitações do usuário com filtros")
     public ResponseEntity<Page<SolicitacaoResponse>> listarSolicitacoes(
@@ -47,19 +76,84 @@ public class SolicitacaoController {
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime dataFim,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
-            Authentication authentication) {
+            @AuthenticationPrincipal UsuarioAutenticado usuario) {
         Page<SolicitacaoResponse> response = solicitacaoService.listarSolicitacoes(
-            authentication.getName(), texto, status, urgente, dataInicio, dataFim, page, size
+            usuario.getId(), texto, status, urgente, dataInicio, dataFim, page, size
+        );
+        return ResponseEntity.ok(response);
+    }
+    
+    @GetMapping("/cursor")
+    @Operation(summary = "Listar solicitações por cursor",
+        description = "Lista solicitações do usuário com os mesmos filtros, paginando pelo cursor retornado na página anterior")
+    public ResponseEntity<PaginaCursorResponse<SolicitacaoResponse>> listarSolicitacoesPorCursor(
+            @RequestParam(required = false) String texto,
+            @RequestParam(required = false) StatusSolicitacao status,
+            @RequestParam(required = false) Boolean urgente,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime dataInicio,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime dataFim,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @AuthenticationPrincipal UsuarioAutenticado usuario) {
+        PaginaCursorResponse<SolicitacaoResponse> response = solicitacaoService.listarSolicitacoesPorCursor(
+            usuario.getId(), texto, status, urgente, dataInicio, dataFim, cursor, size
+        );
+        return ResponseEntity.ok(response);
+    }
+    
+    @GetMapping("/export")
+    @Operation(summary = "Exportar solicitações",
+        description = "Exporta todas as solicitações do usuário que atendem aos filtros, em NDJSON ou CSV")
+    public ResponseEntity<StreamingResponseBody> exportarSolicitacoes(
+            @RequestParam(required = false) String texto,
+            @RequestParam(required = false) StatusSolicitacao status,
+            @RequestParam(required = false) Boolean urgente,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime dataInicio,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime dataFim,
+            @RequestParam(defaultValue = "NDJSON") ExportacaoSolicitacoes.Formato formato,
+            WebRequest request,
+            @AuthenticationPrincipal UsuarioAutenticado usuario) {
+        ExportacaoSolicitacoes.Exportacao exportacao = exportacaoSolicitacoes.iniciar(
+            usuario.getId(), texto, status, urgente, dataInicio, dataFim, formato
         );
+        acompanhar(request, exportacao, exportacaoSolicitacoes.getTempoLimite());
+        return ResponseEntity.ok()
+            .contentType(formato.getContentType())
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"solicitacoes." + formato.getExtensao() + "\"")
+            .body(exportacao);
+    }
+    
+    @GetMapping("/busca")
+    @Operation(summary = "Buscar solicitações",
+        description = "Busca textual em protocolo, justificativa e nome dos módulos, ordenada por relevância")
+    public ResponseEntity<List<SolicitacaoResponse>> buscarSolicitacoes(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "20") int size,
+            @AuthenticationPrincipal UsuarioAutenticado usuario) {
+        List<SolicitacaoResponse> response = solicitacaoService.buscarSolicitacoes(usuario.getId(), q, size);
         return ResponseEntity.ok(response);
     }
     
     @GetMapping("/{id}")
-    @Operation(summary = "Buscar detalhes", description = "Busca detalhes completos de uma solicitação")
+    @Operation(summary = "Buscar detalhes",
+        description = "Busca detalhes de uma solicitação com os eventos mais recentes do histórico")
     public ResponseEntity<SolicitacaoDetalheResponse> buscarDetalhes(
             @PathVariable Long id,
-            Authentication authentication) {
-        SolicitacaoDetalheResponse response = solicitacaoService.buscarDetalhes(id, authentication.getName());
+            @AuthenticationPrincipal UsuarioAutenticado usuario,
+            WebRequest request) {
+        return RespostaCondicional.responder(request, solicitacaoService.etagDetalhes(id, usuario.getId()),
+            CACHE_DETALHE, () -> solicitacaoService.buscarDetalhes(id, usuario.getId()));
+    }
+    
+    @GetMapping("/{id}/historico")
+    @Operation(summary = "Listar histórico",
+        description = "Lista o histórico completo de uma solicitação, do evento mais recente ao mais antigo")
+    public ResponseEntity<Page<HistoricoResponse>> listarHistorico(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @AuthenticationPrincipal UsuarioAutenticado usuario) {
+        Page<HistoricoResponse> response = solicitacaoService.listarHistorico(id, usuario.getId(), page, size);
         return ResponseEntity.ok(response);
     }
     
@@ -68,8 +162,8 @@ public class SolicitacaoController {
     public ResponseEntity<Void> cancelarSolicitacao(
             @PathVariable Long id,
             @Valid @RequestBody CancelarSolicitacaoRequest request,
-            Authentication authentication) {
-        solicitacaoService.cancelarSolicitacao(id, request, authentication.getName());
+            @AuthenticationPrincipal UsuarioAutenticado usuario) {
+        solicitacaoService.cancelarSolicitacao(id, request, usuario.getId());
         return ResponseEntity.noContent().build();
     }
     
@@ -77,8 +171,35 @@ public class SolicitacaoController {
     @Operation(summary = "Renovar acesso", description = "Renova acesso a módulos de uma solicitação")
     public ResponseEntity<CriarSolicitacaoResponse> renovarAcesso(
             @PathVariable Long id,
-            Authentication authentication) {
-        CriarSolicitacaoResponse response = solicitacaoService.renovarAcesso(id, authentication.getName());
+            @AuthenticationPrincipal UsuarioAutenticado usuario) {
+        CriarSolicitacaoResponse response = solicitacaoService.renovarAcesso(id, usuario.getId());
         return ResponseEntity.ok(response);
     }
+    
+    /**
+     * As demais respostas assíncronas ficam com o tempo limite padrão; só a exportação, que pode
+     * levar minutos, usa o seu, aplicado logo antes do início do processamento assíncrono. Ao fim
+     * da requisição, por qualquer motivo, a vaga da exportação é devolvida, mesmo que o corpo nunca
+     * tenha sido escrito.
+     */
+    private static void acompanhar(
+            WebRequest request, ExportacaoSolicitacoes.Exportacao exportacao, Duration tempoLimite) {
+        try {
+            WebAsyncUtils.getAsyncManager(request).registerCallableInterceptor(ExportacaoSolicitacoes.class,
+                new CallableProcessingInterceptor() {
+                    @Override
+                    public <T> void beforeConcurrentHandling(NativeWebRequest asyncRequest, Callable<T> task) {
+                        ((AsyncWebRequest) asyncRequest).setTimeout(tempoLimite.toMillis());
+                    }
+                    
+                    @Override
+                    public <T> void afterCompletion(NativeWebRequest asyncRequest, Callable<T> task) {
+                        exportacao.liberar();
+                    }
+                });
+        } catch (RuntimeException e) {
+            exportacao.liberar();
+            throw e;
+        }
+    }
 }
@@ -0,0 +1,20 @@
+package com.empresa.acesso.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConsultaAcessoRequest {
+    
+    @NotNull(message = "Usuário é obrigatório")
+    private Long usuarioId;
+    
+    @NotNull(message = "Módulo é obrigatório")
+    private Long moduloId;
+}
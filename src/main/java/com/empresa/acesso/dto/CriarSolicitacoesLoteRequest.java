@@ -0,0 +1,23 @@
+package com.empresa.acesso.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CriarSolicitacoesLoteRequest {
+    
+    @NotEmpty(message = "Deve enviar pelo menos uma solicitação")
+    @Size(max = 100, message = "Deve enviar no máximo 100 solicitações por lote")
+    @Valid
+    private List<CriarSolicitacaoRequest> solicitacoes;
+}
@@ -0,0 +1,16 @@
+package com.empresa.acesso.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DecisaoAcessoResponse {
+    private Long usuarioId;
+    private Long moduloId;
+    private boolean permitido;
+}
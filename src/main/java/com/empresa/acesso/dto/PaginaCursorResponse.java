@@ -0,0 +1,19 @@
+package com.empresa.acesso.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaginaCursorResponse<T> {
+    private List<T> conteudo;
+    private int tamanho;
+    private String proximoCursor;
+    private boolean possuiProxima;
+}
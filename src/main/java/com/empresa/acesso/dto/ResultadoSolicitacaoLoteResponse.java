@@ -0,0 +1,23 @@
+package com.empresa.acesso.dto;
+
+import com.empresa.acesso.entity.enums.StatusSolicitacao;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Resultado de um item do lote, na mesma posição do pedido. Itens rejeitados pelas validações
+ * não geram solicitação: status, protocolo e solicitacaoId ficam nulos.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResultadoSolicitacaoLoteResponse {
+    private int indice;
+    private StatusSolicitacao status;
+    private String mensagem;
+    private String protocolo;
+    private Long solicitacaoId;
+}
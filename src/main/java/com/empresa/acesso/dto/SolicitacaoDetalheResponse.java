@@ -24,5 +24,7 @@ public class SolicitacaoDetalheResponse {
     private LocalDateTime dataExpiracao;
     private String motivoNegacao;
     private String motivoCancelamento;
+    // Apenas os eventos mais recentes, em ordem cronológica; o restante em /{id}/historico
     private List<HistoricoResponse> historico;
+    private boolean historicoCompleto;
 }
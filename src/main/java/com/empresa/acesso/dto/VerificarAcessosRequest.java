@@ -0,0 +1,23 @@
+package com.empresa.acesso.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class VerificarAcessosRequest {
+    
+    @NotEmpty(message = "Deve enviar pelo menos uma consulta")
+    @Size(max = 1000, message = "Deve enviar no máximo 1000 consultas por lote")
+    @Valid
+    private List<ConsultaAcessoRequest> consultas;
+}
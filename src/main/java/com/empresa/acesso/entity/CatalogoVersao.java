@@ -0,0 +1,26 @@
+package com.empresa.acesso.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Linha única com a versão do catálogo de módulos, incrementada por triggers a cada alteração
+ * em modulos, modulo_departamentos ou modulo_incompativeis.
+ */
+@Entity
+@Table(name = "catalogo_versao")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CatalogoVersao {
+    
+    public static final Short ID = 1;
+    
+    @Id
+    private Short id;
+    
+    @Column(nullable = false)
+    private Long versao;
+}
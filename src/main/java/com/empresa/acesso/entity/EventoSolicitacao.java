@@ -0,0 +1,43 @@
+package com.empresa.acesso.entity;
+
+import com.empresa.acesso.entity.enums.TipoEventoSolicitacao;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
+
+import java.time.LocalDateTime;
+
+/**
+ * Evento pendente do histórico, gravado junto com a alteração da solicitação e movido depois para
+ * {@link HistoricoSolicitacao} pela MaterializacaoHistorico. Sem chave estrangeira: o insert no
+ * caminho da requisição é só um append na tabela.
+ */
+@Entity
+@Table(name = "eventos_solicitacao")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EventoSolicitacao {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "eventos_solicitacao_id_seq")
+    @SequenceGenerator(name = "eventos_solicitacao_id_seq", sequenceName = "eventos_solicitacao_id_seq", allocationSize = 50)
+    @ColumnDefault("nextval('eventos_solicitacao_id_seq')")
+    private Long id;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "solicitacao_id", nullable = false, foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
+    private Solicitacao solicitacao;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private TipoEventoSolicitacao tipo;
+    
+    @Column(length = 500)
+    private String detalhe;
+    
+    @Column(nullable = false)
+    private LocalDateTime dataHora;
+}
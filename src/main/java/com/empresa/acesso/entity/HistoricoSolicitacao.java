@@ -2,6 +2,7 @@ package com.empresa.acesso.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.LocalDateTime;
 
@@ -15,7 +16,9 @@ import java.time.LocalDateTime;
 public class HistoricoSolicitacao {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "historico_solicitacoes_id_seq")
+    @SequenceGenerator(name = "historico_solicitacoes_id_seq", sequenceName = "historico_solicitacoes_id_seq", allocationSize = 50)
+    @ColumnDefault("nextval('historico_solicitacoes_id_seq')")
     private Long id;
     
     @ManyToOne(fetch = FetchType.LAZY)
@@ -27,4 +30,9 @@ public class HistoricoSolicitacao {
     
     @Column(nullable = false)
     private LocalDateTime dataHora;
+    
+    // Id do evento de origem (sequência de eventos_solicitacao): desempata o histórico no mesmo instante
+    @ColumnDefault("nextval('eventos_solicitacao_id_seq')")
+    @Column(nullable = false, insertable = false, updatable = false)
+    private Long eventoId;
 }
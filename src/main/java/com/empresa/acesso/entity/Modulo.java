@@ -2,12 +2,16 @@ package com.empresa.acesso.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.HashSet;
 import java.util.Set;
 
 @Entity
 @Table(name = "modulos")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Modulo.REGIAO_CACHE)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -15,8 +19,14 @@ import java.util.Set;
 @Builder
 public class Modulo {
     
+    // Regiões do cache de segundo nível, configuradas em cache-hibernate.conf
+    public static final String REGIAO_CACHE = "modulos";
+    public static final String REGIAO_CACHE_DEPARTAMENTOS = "modulos-departamentos";
+    public static final String REGIAO_CACHE_INCOMPATIVEIS = "modulos-incompativeis";
+    
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "modulos_id_seq")
+    @SequenceGenerator(name = "modulos_id_seq", sequenceName = "modulos_id_seq", allocationSize = 50)
     private Long id;
     
     @Column(nullable = false, unique = true)
@@ -31,12 +41,14 @@ public class Modulo {
     @ElementCollection
     @CollectionTable(name = "modulo_departamentos", joinColumns = @JoinColumn(name = "modulo_id"))
     @Column(name = "departamento")
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = REGIAO_CACHE_DEPARTAMENTOS)
     @Builder.Default
     private Set<String> departamentosPermitidos = new HashSet<>();
     
     @ElementCollection
     @CollectionTable(name = "modulo_incompativeis", joinColumns = @JoinColumn(name = "modulo_id"))
     @Column(name = "modulo_incompativel_id")
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = REGIAO_CACHE_INCOMPATIVEIS)
     @Builder.Default
     private Set<Long> modulosIncompativeis = new HashSet<>();
 }
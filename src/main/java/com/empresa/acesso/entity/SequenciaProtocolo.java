@@ -0,0 +1,26 @@
+package com.empresa.acesso.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+
+/**
+ * Contador diário de protocolos. Atualizado apenas pelo {@link com.empresa.acesso.service.GeradorProtocolo},
+ * que reserva blocos de números incrementando {@code ultimoValor}.
+ */
+@Entity
+@Table(name = "sequencias_protocolo")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SequenciaProtocolo {
+    
+    @Id
+    private LocalDate data;
+    
+    @Column(nullable = false)
+    private Long ultimoValor;
+}
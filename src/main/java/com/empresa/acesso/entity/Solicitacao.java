@@ -1,8 +1,10 @@
 package com.empresa.acesso.entity;
 
 import com.empresa.acesso.entity.enums.StatusSolicitacao;
+import com.empresa.acesso.entity.enums.TipoEventoSolicitacao;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -20,7 +22,9 @@ import java.util.Set;
 public class Solicitacao {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "solicitacoes_id_seq")
+    @SequenceGenerator(name = "solicitacoes_id_seq", sequenceName = "solicitacoes_id_seq", allocationSize = 50)
+    @ColumnDefault("nextval('solicitacoes_id_seq')")
     private Long id;
     
     @Column(nullable = false, unique = true)
@@ -64,16 +68,28 @@ public class Solicitacao {
     @JoinColumn(name = "solicitacao_origem_id")
     private Solicitacao solicitacaoOrigem;
     
+    // Muda a cada alteração da solicitação; compõe o ETag do detalhe
+    @Version
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    private Long versao;
+    
+    // Histórico já materializado; os eventos novos entram por registrarEvento
     @OneToMany(mappedBy = "solicitacao", cascade = CascadeType.ALL, orphanRemoval = true)
     @Builder.Default
     private List<HistoricoSolicitacao> historico = new ArrayList<>();
     
-    public void adicionarHistorico(String descricao) {
-        HistoricoSolicitacao hist = HistoricoSolicitacao.builder()
+    @OneToMany(mappedBy = "solicitacao", cascade = CascadeType.ALL, orphanRemoval = true)
+    @Builder.Default
+    private List<EventoSolicitacao> eventos = new ArrayList<>();
+    
+    public void registrarEvento(TipoEventoSolicitacao tipo, String detalhe) {
+        EventoSolicitacao evento = EventoSolicitacao.builder()
             .solicitacao(this)
-            .descricao(descricao)
+            .tipo(tipo)
+            .detalhe(detalhe)
             .dataHora(LocalDateTime.now())
             .build();
-        this.historico.add(hist);
+        this.eventos.add(evento);
     }
 }
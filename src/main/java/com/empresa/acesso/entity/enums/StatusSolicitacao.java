@@ -3,5 +3,6 @@ package com.empresa.acesso.entity.enums;
 public enum StatusSolicitacao {
     ATIVO,
     NEGADO,
-    CANCELADO
+    CANCELADO,
+    EXPIRADO
 }
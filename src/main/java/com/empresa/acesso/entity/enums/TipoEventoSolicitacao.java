@@ -0,0 +1,25 @@
+package com.empresa.acesso.entity.enums;
+
+/**
+ * Eventos do histórico gravados na transação da solicitação. O texto legível é montado só na
+ * leitura ou na materialização: o texto do tipo seguido do detalhe, quando houver.
+ */
+public enum TipoEventoSolicitacao {
+    APROVADA("Solicitação aprovada automaticamente"),
+    NEGADA("Solicitação negada: "),
+    CANCELADA("Solicitação cancelada: ");
+    
+    private final String texto;
+    
+    TipoEventoSolicitacao(String texto) {
+        this.texto = texto;
+    }
+    
+    public String getTexto() {
+        return texto;
+    }
+    
+    public String descrever(String detalhe) {
+        return detalhe == null ? texto : texto + detalhe;
+    }
+}
@@ -1,7 +1,13 @@
 package com.empresa.acesso.exception;
 
-public class BusinessException extends RuntimeException {
+import org.springframework.http.HttpStatus;
+
+public class BusinessException extends DomainException {
     public BusinessException(String message) {
-        super(message);
+        this(CodigoErro.REGRA_NEGOCIO, message);
+    }
+    
+    public BusinessException(String codigo, String message) {
+        super(HttpStatus.BAD_REQUEST, "Business Error", codigo, message);
     }
 }
@@ -0,0 +1,31 @@
+package com.empresa.acesso.exception;
+
+/**
+ * Códigos estáveis devolvidos no campo {@code codigo} do {@link ErrorResponse}, para o cliente
+ * tratar o erro sem depender do texto da mensagem.
+ */
+public final class CodigoErro {
+    
+    public static final String REGRA_NEGOCIO = "REGRA_NEGOCIO";
+    public static final String MODULO_NAO_ENCONTRADO = "MODULO_NAO_ENCONTRADO";
+    public static final String MODULO_INATIVO = "MODULO_INATIVO";
+    public static final String SOLICITACAO_ATIVA_EXISTENTE = "SOLICITACAO_ATIVA_EXISTENTE";
+    public static final String ACESSO_JA_ATIVO = "ACESSO_JA_ATIVO";
+    public static final String CURSOR_INVALIDO = "CURSOR_INVALIDO";
+    
+    public static final String RECURSO_NAO_ENCONTRADO = "RECURSO_NAO_ENCONTRADO";
+    public static final String SOLICITACAO_NAO_ENCONTRADA = "SOLICITACAO_NAO_ENCONTRADA";
+    public static final String USUARIO_NAO_ENCONTRADO = "USUARIO_NAO_ENCONTRADO";
+    
+    public static final String NAO_AUTORIZADO = "NAO_AUTORIZADO";
+    public static final String REFRESH_TOKEN_INVALIDO = "REFRESH_TOKEN_INVALIDO";
+    public static final String REFRESH_TOKEN_EXPIRADO = "REFRESH_TOKEN_EXPIRADO";
+    public static final String CREDENCIAIS_INVALIDAS = "CREDENCIAIS_INVALIDAS";
+    
+    public static final String SERVICO_INDISPONIVEL = "SERVICO_INDISPONIVEL";
+    public static final String VALIDACAO = "VALIDACAO";
+    public static final String ERRO_INTERNO = "ERRO_INTERNO";
+    
+    private CodigoErro() {
+    }
+}
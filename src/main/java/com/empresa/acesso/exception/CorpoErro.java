@@ -0,0 +1,80 @@
+package com.empresa.acesso.exception;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import org.springframework.http.HttpStatus;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * JSON de um {@link ErrorResponse} com a parte fixa (status, erro, código e mensagem) serializada
+ * na criação; cada resposta só acrescenta o instante e o caminho. Produz o mesmo documento que o
+ * Jackson geraria para o ErrorResponse, sem passar pelo ObjectMapper.
+ */
+final class CorpoErro {
+    
+    private static final JsonStringEncoder ENCODER = JsonStringEncoder.getInstance();
+    private static final byte[] INICIO = ascii("{\"timestamp\":\"");
+    private static final byte[] FIM = ascii(",\"details\":null}");
+    private static final byte[] NULO = ascii("null");
+    
+    // Do fechamento do timestamp até "path":
+    private final byte[] trecho;
+    
+    private CorpoErro(byte[] trecho) {
+        this.trecho = trecho;
+    }
+    
+    static CorpoErro de(HttpStatus status, String erro, String codigo, String mensagem) {
+        StringBuilder json = new StringBuilder("\",\"status\":").append(status.value());
+        json.append(",\"error\":");
+        texto(json, erro);
+        json.append(",\"codigo\":");
+        texto(json, codigo);
+        json.append(",\"message\":");
+        texto(json, mensagem);
+        json.append(",\"path\":");
+        return new CorpoErro(json.toString().getBytes(StandardCharsets.UTF_8));
+    }
+    
+    byte[] serializar(LocalDateTime timestamp, String path) {
+        byte[] instante = ascii(DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(timestamp));
+        byte[] caminho = path == null ? NULO : ENCODER.quoteAsUTF8(path);
+        int aspas = path == null ? 0 : 2;
+        
+        byte[] corpo = new byte[INICIO.length + instante.length + trecho.length
+            + caminho.length + aspas + FIM.length];
+        int posicao = copiar(INICIO, corpo, 0);
+        posicao = copiar(instante, corpo, posicao);
+        posicao = copiar(trecho, corpo, posicao);
+        if (path != null) {
+            corpo[posicao++] = '"';
+        }
+        posicao = copiar(caminho, corpo, posicao);
+        if (path != null) {
+            corpo[posicao++] = '"';
+        }
+        copiar(FIM, corpo, posicao);
+        return corpo;
+    }
+    
+    private static void texto(StringBuilder json, String valor) {
+        if (valor == null) {
+            json.append("null");
+            return;
+        }
+        json.append('"');
+        ENCODER.quoteAsString(valor, json);
+        json.append('"');
+    }
+    
+    private static int copiar(byte[] origem, byte[] destino, int posicao) {
+        System.arraycopy(origem, 0, destino, posicao, origem.length);
+        return posicao + origem.length;
+    }
+    
+    private static byte[] ascii(String valor) {
+        return valor.getBytes(StandardCharsets.US_ASCII);
+    }
+}
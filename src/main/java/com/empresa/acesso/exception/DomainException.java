@@ -0,0 +1,46 @@
+package com.empresa.acesso.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Base das exceções lançadas no fluxo normal: regra negada, recurso inexistente, token inválido.
+ * Não capturam a pilha nem guardam exceções suprimidas, o que as torna baratas de lançar e
+ * seguras para reutilizar: todo o estado é final, as de mensagem fixa ficam em constantes e o
+ * corpo da resposta delas é serializado uma única vez.
+ */
+public abstract class DomainException extends RuntimeException {
+    
+    private final HttpStatus status;
+    private final String erro;
+    private final String codigo;
+    
+    // Montado no construtor: campo final, visível por inteiro para qualquer thread que receba a exceção
+    private final transient CorpoErro corpo;
+    
+    protected DomainException(HttpStatus status, String erro, String codigo, String message) {
+        super(message, null, false, false);
+        this.status = status;
+        this.erro = erro;
+        this.codigo = codigo;
+        this.corpo = CorpoErro.de(status, erro, codigo, message);
+    }
+    
+    public String getCodigo() {
+        return codigo;
+    }
+    
+    public HttpStatus getStatus() {
+        return status;
+    }
+    
+    /**
+     * Valor do campo {@code error} do {@link ErrorResponse}.
+     */
+    public String getErro() {
+        return erro;
+    }
+    
+    CorpoErro corpo() {
+        return corpo;
+    }
+}
@@ -16,6 +16,7 @@ public class ErrorResponse {
     private LocalDateTime timestamp;
     private int status;
     private String error;
+    private String codigo;
     private String message;
     private String path;
     private List<String> details;
@@ -1,7 +1,9 @@
 package com.empresa.acesso.exception;
 
 import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.validation.FieldError;
@@ -16,56 +18,37 @@ import java.util.stream.Collectors;
 @RestControllerAdvice
 public class GlobalExceptionHandler {
     
-    @ExceptionHandler(BusinessException.class)
-    public ResponseEntity<ErrorResponse> handleBusinessException(
-            BusinessException ex, HttpServletRequest request) {
-        ErrorResponse error = ErrorResponse.builder()
-            .timestamp(LocalDateTime.now())
-            .status(HttpStatus.BAD_REQUEST.value())
-            .error("Business Error")
-            .message(ex.getMessage())
-            .path(request.getRequestURI())
-            .build();
-        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
-    }
+    private static final CorpoErro CREDENCIAIS_INVALIDAS = CorpoErro.de(HttpStatus.UNAUTHORIZED,
+        "Authentication Failed", CodigoErro.CREDENCIAIS_INVALIDAS, "Email ou senha inválidos");
+    private static final CorpoErro ERRO_INTERNO = CorpoErro.de(HttpStatus.INTERNAL_SERVER_ERROR,
+        "Internal Server Error", CodigoErro.ERRO_INTERNO, "Erro interno do servidor");
     
-    @ExceptionHandler(ResourceNotFoundException.class)
-    public ResponseEntity<ErrorResponse> handleResourceNotFoundException(
-            ResourceNotFoundException ex, HttpServletRequest request) {
-        ErrorResponse error = ErrorResponse.builder()
-            .timestamp(LocalDateTime.now())
-            .status(HttpStatus.NOT_FOUND.value())
-            .error("Resource Not Found")
-            .message(ex.getMessage())
-            .path(request.getRequestURI())
-            .build();
-        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
+    /**
+     * Exceções de domínio respondem com o corpo já serializado da própria exceção.
+     */
+    @ExceptionHandler(DomainException.class)
+    public ResponseEntity<byte[]> handleDomainException(
+            DomainException ex, HttpServletRequest request) {
+        return ResponseEntity.status(ex.getStatus())
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(ex.corpo().serializar(LocalDateTime.now(), request.getRequestURI()));
     }
     
-    @ExceptionHandler(UnauthorizedException.class)
-    public ResponseEntity<ErrorResponse> handleUnauthorizedException(
-            UnauthorizedException ex, HttpServletRequest request) {
-        ErrorResponse error = ErrorResponse.builder()
-            .timestamp(LocalDateTime.now())
-            .status(HttpStatus.UNAUTHORIZED.value())
-            .error("Unauthorized")
-            .message(ex.getMessage())
-            .path(request.getRequestURI())
-            .build();
-        return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(error);
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<byte[]> handleServiceUnavailableException(
+            ServiceUnavailableException ex, HttpServletRequest request) {
+        return ResponseEntity.status(ex.getStatus())
+            .header(HttpHeaders.RETRY_AFTER, "1")
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(ex.corpo().serializar(LocalDateTime.now(), request.getRequestURI()));
     }
     
     @ExceptionHandler(BadCredentialsException.class)
-    public ResponseEntity<ErrorResponse> handleBadCredentialsException(
+    public ResponseEntity<byte[]> handleBadCredentialsException(
             BadCredentialsException ex, HttpServletRequest request) {
-        ErrorResponse error = ErrorResponse.builder()
-            .timestamp(LocalDateTime.now())
-            .status(HttpStatus.UNAUTHORIZED.value())
-            .error("Authentication Failed")
-            .message("Email ou senha inválidos")
-            .path(request.getRequestURI())
-            .build();
-        return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(error);
+        return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(CREDENCIAIS_INVALIDAS.serializar(LocalDateTime.now(), request.getRequestURI()));
     }
     
     @ExceptionHandler(MethodArgumentNotValidException.class)
@@ -84,6 +67,7 @@ public class GlobalExceptionHandler {
             .timestamp(LocalDateTime.now())
             .status(HttpStatus.BAD_REQUEST.value())
             .error("Validation Error")
+            .codigo(CodigoErro.VALIDACAO)
             .message("Erro de validação nos dados enviados")
             .path(request.getRequestURI())
             .details(details)
@@ -92,15 +76,10 @@ public class GlobalExceptionHandler {
     }
     
     @ExceptionHandler(Exception.class)
-    public ResponseEntity<ErrorResponse> handleGenericException(
+    public ResponseEntity<byte[]> handleGenericException(
             Exception ex, HttpServletRequest request) {
-        ErrorResponse error = ErrorResponse.builder()
-            .timestamp(LocalDateTime.now())
-            .status(HttpStatus.INTERNAL_SERVER_ERROR.value())
-            .error("Internal Server Error")
-            .message("Erro interno do servidor")
-            .path(request.getRequestURI())
-            .build();
-        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(ERRO_INTERNO.serializar(LocalDateTime.now(), request.getRequestURI()));
     }
 }
@@ -1,7 +1,13 @@
 package com.empresa.acesso.exception;
 
-public class ResourceNotFoundException extends RuntimeException {
+import org.springframework.http.HttpStatus;
+
+public class ResourceNotFoundException extends DomainException {
     public ResourceNotFoundException(String message) {
-        super(message);
+        this(CodigoErro.RECURSO_NAO_ENCONTRADO, message);
+    }
+    
+    public ResourceNotFoundException(String codigo, String message) {
+        super(HttpStatus.NOT_FOUND, "Resource Not Found", codigo, message);
     }
 }
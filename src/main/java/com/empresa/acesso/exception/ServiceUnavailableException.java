@@ -0,0 +1,13 @@
+package com.empresa.acesso.exception;
+
+import org.springframework.http.HttpStatus;
+
+public class ServiceUnavailableException extends DomainException {
+    public ServiceUnavailableException(String message) {
+        this(CodigoErro.SERVICO_INDISPONIVEL, message);
+    }
+    
+    public ServiceUnavailableException(String codigo, String message) {
+        super(HttpStatus.SERVICE_UNAVAILABLE, "Service Unavailable", codigo, message);
+    }
+}
@@ -1,7 +1,13 @@
 package com.empresa.acesso.exception;
 
-public class UnauthorizedException extends RuntimeException {
+import org.springframework.http.HttpStatus;
+
+public class UnauthorizedException extends DomainException {
     public UnauthorizedException(String message) {
-        super(message);
+        this(CodigoErro.NAO_AUTORIZADO, message);
+    }
+    
+    public UnauthorizedException(String codigo, String message) {
+        super(HttpStatus.UNAUTHORIZED, "Unauthorized", codigo, message);
     }
 }
@@ -0,0 +1,9 @@
+package com.empresa.acesso.repository;
+
+import com.empresa.acesso.entity.CatalogoVersao;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface CatalogoVersaoRepository extends JpaRepository<CatalogoVersao, Short> {
+}
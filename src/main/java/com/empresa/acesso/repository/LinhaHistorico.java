@@ -0,0 +1,20 @@
+package com.empresa.acesso.repository;
+
+import com.empresa.acesso.entity.enums.TipoEventoSolicitacao;
+
+import java.time.LocalDateTime;
+
+/**
+ * Linha do histórico de uma solicitação: já materializada, com a descrição pronta, ou ainda
+ * pendente, com o tipo e o detalhe do evento.
+ */
+public interface LinhaHistorico {
+    
+    String getDescricao();
+    
+    TipoEventoSolicitacao getTipo();
+    
+    String getDetalhe();
+    
+    LocalDateTime getDataHora();
+}
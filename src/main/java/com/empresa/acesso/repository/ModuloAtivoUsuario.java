@@ -0,0 +1,16 @@
+package com.empresa.acesso.repository;
+
+/**
+ * Departamento e situação do usuário e um de seus módulos ativos, uma linha por módulo.
+ * Usuários sem módulos ativos têm uma única linha com moduloId nulo.
+ */
+public interface ModuloAtivoUsuario {
+    
+    Long getUsuarioId();
+    
+    String getDepartamento();
+    
+    Boolean getAtivo();
+    
+    Long getModuloId();
+}
@@ -2,6 +2,7 @@ package com.empresa.acesso.repository;
 
 import com.empresa.acesso.entity.Modulo;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -9,5 +10,8 @@ import java.util.List;
 @Repository
 public interface ModuloRepository extends JpaRepository<Modulo, Long> {
     
-    List<Modulo> findByAtivoTrue();
+    @Query("SELECT DISTINCT m FROM Modulo m " +
+           "LEFT JOIN FETCH m.departamentosPermitidos " +
+           "LEFT JOIN FETCH m.modulosIncompativeis")
+    List<Modulo> findAllComRegras();
 }
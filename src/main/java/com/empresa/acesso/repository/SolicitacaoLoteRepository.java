@@ -0,0 +1,89 @@
+package com.empresa.acesso.repository;
+
+import com.empresa.acesso.entity.EventoSolicitacao;
+import com.empresa.acesso.entity.Modulo;
+import com.empresa.acesso.entity.Solicitacao;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Gravação de solicitações em lote com JDBC batch: um envio por tabela, qualquer que seja o
+ * número de solicitações. As solicitações recebidas não são gerenciadas pelo JPA.
+ */
+@Repository
+@RequiredArgsConstructor
+public class SolicitacaoLoteRepository {
+    
+    private static final String INSERIR_SOLICITACAO =
+        "INSERT INTO solicitacoes (protocolo, usuario_id, justificativa, urgente, status, motivo_negacao, " +
+        "data_solicitacao, data_expiracao) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERIR_MODULO =
+        "INSERT INTO solicitacao_modulos (solicitacao_id, modulo_id) VALUES (?, ?)";
+    private static final String INSERIR_EVENTO =
+        "INSERT INTO eventos_solicitacao (solicitacao_id, tipo, detalhe, data_hora) VALUES (?, ?, ?, ?)";
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    /**
+     * Insere as solicitações com seus módulos e eventos de histórico e preenche o id gerado de cada uma.
+     */
+    public void inserir(List<Solicitacao> solicitacoes) {
+        if (solicitacoes.isEmpty()) {
+            return;
+        }
+        
+        GeneratedKeyHolder chaves = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+            conexao -> conexao.prepareStatement(INSERIR_SOLICITACAO, new String[] {"id"}),
+            new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    Solicitacao solicitacao = solicitacoes.get(i);
+                    ps.setString(1, solicitacao.getProtocolo());
+                    ps.setLong(2, solicitacao.getUsuario().getId());
+                    ps.setString(3, solicitacao.getJustificativa());
+                    ps.setBoolean(4, solicitacao.getUrgente());
+                    ps.setString(5, solicitacao.getStatus().name());
+                    ps.setString(6, solicitacao.getMotivoNegacao());
+                    ps.setTimestamp(7, Timestamp.valueOf(solicitacao.getDataSolicitacao()));
+                    ps.setTimestamp(8, solicitacao.getDataExpiracao() != null
+                        ? Timestamp.valueOf(solicitacao.getDataExpiracao()) : null);
+                }
+                
+                @Override
+                public int getBatchSize() {
+                    return solicitacoes.size();
+                }
+            },
+            chaves);
+        
+        // Uma chave por linha, na ordem do batch; o nome da coluna varia entre bancos
+        List<Map<String, Object>> ids = chaves.getKeyList();
+        List<Object[]> modulos = new ArrayList<>();
+        List<Object[]> eventos = new ArrayList<>();
+        for (int i = 0; i < solicitacoes.size(); i++) {
+            Solicitacao solicitacao = solicitacoes.get(i);
+            solicitacao.setId(((Number) ids.get(i).values().iterator().next()).longValue());
+            for (Modulo modulo : solicitacao.getModulos()) {
+                modulos.add(new Object[] {solicitacao.getId(), modulo.getId()});
+            }
+            for (EventoSolicitacao evento : solicitacao.getEventos()) {
+                eventos.add(new Object[] {solicitacao.getId(), evento.getTipo().name(), evento.getDetalhe(),
+                    Timestamp.valueOf(evento.getDataHora())});
+            }
+        }
+        
+        jdbcTemplate.batchUpdate(INSERIR_MODULO, modulos);
+        jdbcTemplate.batchUpdate(INSERIR_EVENTO, eventos);
+    }
+}
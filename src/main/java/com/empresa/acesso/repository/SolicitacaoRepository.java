@@ -10,39 +10,55 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Repository
 public interface SolicitacaoRepository extends JpaRepository<Solicitacao, Long> {
     
+    /**
+     * Colunas de {@link SolicitacaoResumo}. Os módulos são agregados no próprio SELECT, uma
+     * busca pela chave de solicitacao_modulos por linha, sem JOIN e sem GROUP BY na consulta externa.
+     */
+    String COLUNAS_RESUMO =
+           "SELECT s.id AS id, s.protocolo AS protocolo, s.status AS status, " +
+           "       s.justificativa AS justificativa, s.urgente AS urgente, " +
+           "       s.data_solicitacao AS dataSolicitacao, s.data_expiracao AS dataExpiracao, " +
+           "       s.motivo_negacao AS motivoNegacao, s.motivo_cancelamento AS motivoCancelamento, " +
+           "       (SELECT ARRAY_AGG(m.id ORDER BY m.id) FROM solicitacao_modulos sm " +
+           "        JOIN modulos m ON sm.modulo_id = m.id WHERE sm.solicitacao_id = s.id) AS moduloIds, " +
+           "       (SELECT ARRAY_AGG(m.nome ORDER BY m.id) FROM solicitacao_modulos sm " +
+           "        JOIN modulos m ON sm.modulo_id = m.id WHERE sm.solicitacao_id = s.id) AS moduloNomes " +
+           "FROM solicitacoes s ";
+    
     @Query("SELECT s FROM Solicitacao s WHERE s.usuario.id = :usuarioId")
     Page<Solicitacao> findByUsuarioId(@Param("usuarioId") Long usuarioId, Pageable pageable);
     
-    @Query(value = "SELECT DISTINCT s.* FROM solicitacoes s " +
-           "LEFT JOIN solicitacao_modulos sm ON s.id = sm.solicitacao_id " +
-           "LEFT JOIN modulos m ON sm.modulo_id = m.id " +
+    @Query(value = COLUNAS_RESUMO +
            "WHERE s.usuario_id = :usuarioId " +
            "AND (:texto IS NULL OR s.protocolo ILIKE CONCAT('%', CAST(:texto AS text), '%') " +
-           "     OR m.nome ILIKE CONCAT('%', CAST(:texto AS text), '%') " +
-           "     OR CAST(s.justificativa AS text) ILIKE CONCAT('%', CAST(:texto AS text), '%')) " +
+           "     OR CAST(s.justificativa AS text) ILIKE CONCAT('%', CAST(:texto AS text), '%') " +
+           "     OR EXISTS (SELECT 1 FROM solicitacao_modulos sm JOIN modulos m ON sm.modulo_id = m.id " +
+           "                WHERE sm.solicitacao_id = s.id AND m.nome ILIKE CONCAT('%', CAST(:texto AS text), '%'))) " +
            "AND (:status IS NULL OR s.status = CAST(:status AS text)) " +
            "AND (:urgente IS NULL OR s.urgente = :urgente) " +
            "AND (:dataInicio IS NULL OR s.data_solicitacao >= CAST(:dataInicio AS timestamp)) " +
            "AND (:dataFim IS NULL OR s.data_solicitacao <= CAST(:dataFim AS timestamp)) " +
            "ORDER BY s.data_solicitacao DESC",
-           countQuery = "SELECT COUNT(DISTINCT s.id) FROM solicitacoes s " +
-           "LEFT JOIN solicitacao_modulos sm ON s.id = sm.solicitacao_id " +
-           "LEFT JOIN modulos m ON sm.modulo_id = m.id " +
+           countQuery = "SELECT COUNT(*) FROM solicitacoes s " +
            "WHERE s.usuario_id = :usuarioId " +
            "AND (:texto IS NULL OR s.protocolo ILIKE CONCAT('%', CAST(:texto AS text), '%') " +
-           "     OR m.nome ILIKE CONCAT('%', CAST(:texto AS text), '%') " +
-           "     OR CAST(s.justificativa AS text) ILIKE CONCAT('%', CAST(:texto AS text), '%')) " +
+           "     OR CAST(s.justificativa AS text) ILIKE CONCAT('%', CAST(:texto AS text), '%') " +
+           "     OR EXISTS (SELECT 1 FROM solicitacao_modulos sm JOIN modulos m ON sm.modulo_id = m.id " +
+           "                WHERE sm.solicitacao_id = s.id AND m.nome ILIKE CONCAT('%', CAST(:texto AS text), '%'))) " +
            "AND (:status IS NULL OR s.status = CAST(:status AS text)) " +
            "AND (:urgente IS NULL OR s.urgente = :urgente) " +
            "AND (:dataInicio IS NULL OR s.data_solicitacao >= CAST(:dataInicio AS timestamp)) " +
            "AND (:dataFim IS NULL OR s.data_solicitacao <= CAST(:dataFim AS timestamp))",
            nativeQuery = true)
-    Page<Solicitacao> findByUsuarioIdWithFilters(
+    Page<SolicitacaoResumo> findByUsuarioIdWithFilters(
         @Param("usuarioId") Long usuarioId,
         @Param("texto") String texto,
         @Param("status") String status,
@@ -52,11 +68,124 @@ public interface SolicitacaoRepository extends JpaRepository<Solicitacao, Long>
         Pageable pageable
     );
     
+    String FILTROS_CURSOR =
+           "WHERE s.usuario_id = :usuarioId " +
+           "AND (:texto IS NULL OR s.protocolo ILIKE CONCAT('%', CAST(:texto AS text), '%') " +
+           "     OR CAST(s.justificativa AS text) ILIKE CONCAT('%', CAST(:texto AS text), '%') " +
+           "     OR EXISTS (SELECT 1 FROM solicitacao_modulos sm JOIN modulos m ON sm.modulo_id = m.id " +
+           "                WHERE sm.solicitacao_id = s.id AND m.nome ILIKE CONCAT('%', CAST(:texto AS text), '%'))) " +
+           "AND (:status IS NULL OR s.status = CAST(:status AS text)) " +
+           "AND (:urgente IS NULL OR s.urgente = :urgente) " +
+           "AND (:dataInicio IS NULL OR s.data_solicitacao >= CAST(:dataInicio AS timestamp)) " +
+           "AND (:dataFim IS NULL OR s.data_solicitacao <= CAST(:dataFim AS timestamp)) ";
+    
+    /**
+     * Primeira página da listagem por cursor: sem OFFSET e sem consulta de contagem,
+     * percorrendo o índice (usuario_id, data_solicitacao DESC, id DESC).
+     */
+    @Query(value = COLUNAS_RESUMO + FILTROS_CURSOR +
+           "ORDER BY s.data_solicitacao DESC, s.id DESC LIMIT :limite",
+           nativeQuery = true)
+    List<SolicitacaoResumo> findPrimeiraPaginaPorCursor(
+        @Param("usuarioId") Long usuarioId,
+        @Param("texto") String texto,
+        @Param("status") String status,
+        @Param("urgente") Boolean urgente,
+        @Param("dataInicio") String dataInicio,
+        @Param("dataFim") String dataFim,
+        @Param("limite") int limite
+    );
+    
+    /**
+     * Páginas seguintes: continua a partir da última linha entregue com comparação de linha,
+     * que o índice resolve como faixa em vez de descartar as linhas anteriores.
+     */
+    @Query(value = COLUNAS_RESUMO + FILTROS_CURSOR +
+           "AND (s.data_solicitacao, s.id) < (:cursorData, :cursorId) " +
+           "ORDER BY s.data_solicitacao DESC, s.id DESC LIMIT :limite",
+           nativeQuery = true)
+    List<SolicitacaoResumo> findProximaPaginaPorCursor(
+        @Param("usuarioId") Long usuarioId,
+        @Param("texto") String texto,
+        @Param("status") String status,
+        @Param("urgente") Boolean urgente,
+        @Param("dataInicio") String dataInicio,
+        @Param("dataFim") String dataFim,
+        @Param("cursorData") LocalDateTime cursorData,
+        @Param("cursorId") Long cursorId,
+        @Param("limite") int limite
+    );
+    
+    /**
+     * Busca ordenada por relevância (PostgreSQL, pg_trgm). Os candidatos vêm dos índices de
+     * trigramas: trecho exato (ILIKE) em protocolo, justificativa ou nome do módulo, ou
+     * palavra parecida (word similarity) na justificativa ou no nome do módulo. Cada ramo já
+     * filtra pelo usuário, para o custo acompanhar as solicitações dele e não a tabela inteira.
+     */
+    @Query(value = COLUNAS_RESUMO +
+           "WHERE s.usuario_id = :usuarioId " +
+           "AND s.id IN (" +
+           "    SELECT c.id FROM solicitacoes c " +
+           "    WHERE c.usuario_id = :usuarioId " +
+           "    AND (c.protocolo ILIKE :padrao OR c.justificativa ILIKE :padrao OR :termo <% c.justificativa) " +
+           "    UNION " +
+           "    SELECT sm.solicitacao_id FROM solicitacao_modulos sm " +
+           "    JOIN modulos m ON sm.modulo_id = m.id " +
+           "    JOIN solicitacoes c ON c.id = sm.solicitacao_id " +
+           "    WHERE c.usuario_id = :usuarioId AND (m.nome ILIKE :padrao OR :termo <% m.nome)) " +
+           "ORDER BY GREATEST(" +
+           "    similarity(s.protocolo, :termo), " +
+           "    word_similarity(:termo, s.justificativa), " +
+           "    COALESCE((SELECT MAX(word_similarity(:termo, m.nome)) FROM solicitacao_modulos sm " +
+           "              JOIN modulos m ON sm.modulo_id = m.id WHERE sm.solicitacao_id = s.id), 0)) DESC, " +
+           "    s.data_solicitacao DESC, s.id DESC " +
+           "LIMIT :limite",
+           nativeQuery = true)
+    List<SolicitacaoResumo> buscarPorRelevancia(
+        @Param("usuarioId") Long usuarioId,
+        @Param("termo") String termo,
+        @Param("padrao") String padrao,
+        @Param("limite") int limite
+    );
+    
     @Query("SELECT s FROM Solicitacao s WHERE s.id = :id AND s.usuario.id = :usuarioId")
     Optional<Solicitacao> findByIdAndUsuarioId(@Param("id") Long id, @Param("usuarioId") Long usuarioId);
     
-    @Query("SELECT CASE WHEN COUNT(s) > 0 THEN true ELSE false END FROM Solicitacao s " +
-           "JOIN s.modulos m WHERE s.usuario.id = :usuarioId AND m.id = :moduloId " +
+    @Query(value = COLUNAS_RESUMO + "WHERE s.id = :id AND s.usuario_id = :usuarioId", nativeQuery = true)
+    Optional<SolicitacaoResumo> findResumoByIdAndUsuarioId(@Param("id") Long id, @Param("usuarioId") Long usuarioId);
+    
+    /**
+     * Histórico materializado e eventos ainda pendentes, do mais recente ao mais antigo, em uma
+     * única consulta. A materialização move cada lote em uma transação, então cada evento aparece
+     * exatamente uma vez. Eventos no mesmo instante são desempatados pelo id do evento, que a linha
+     * materializada conserva: a ordem é a da sequência de eventos_solicitacao, igual antes e depois
+     * da materialização. O lado materializado sai ordenado de idx_historico_solicitacao_evento.
+     */
+    String LINHAS_HISTORICO =
+           "SELECT h.descricao AS descricao, NULL AS tipo, NULL AS detalhe, h.data_hora AS dataHora, h.evento_id AS id " +
+           "FROM historico_solicitacoes h WHERE h.solicitacao_id = :solicitacaoId " +
+           "UNION ALL " +
+           "SELECT NULL, e.tipo, e.detalhe, e.data_hora, e.id " +
+           "FROM eventos_solicitacao e WHERE e.solicitacao_id = :solicitacaoId " +
+           "ORDER BY dataHora DESC, id DESC ";
+    
+    @Query(value = LINHAS_HISTORICO + "LIMIT :limite", nativeQuery = true)
+    List<LinhaHistorico> findHistoricoRecente(@Param("solicitacaoId") Long solicitacaoId, @Param("limite") int limite);
+    
+    @Query(value = LINHAS_HISTORICO,
+           countQuery = "SELECT (SELECT COUNT(*) FROM historico_solicitacoes WHERE solicitacao_id = :solicitacaoId) " +
+           "     + (SELECT COUNT(*) FROM eventos_solicitacao WHERE solicitacao_id = :solicitacaoId)",
+           nativeQuery = true)
+    Page<LinhaHistorico> findHistoricoBySolicitacaoId(@Param("solicitacaoId") Long solicitacaoId, Pageable pageable);
+    
+    @Query("SELECT COUNT(s) > 0 FROM Solicitacao s WHERE s.id = :id AND s.usuario.id = :usuarioId")
+    boolean existsByIdAndUsuarioId(@Param("id") Long id, @Param("usuarioId") Long usuarioId);
+    
+    @Query("SELECT s.versao FROM Solicitacao s WHERE s.id = :id AND s.usuario.id = :usuarioId")
+    Optional<Long> findVersaoByIdAndUsuarioId(@Param("id") Long id, @Param("usuarioId") Long usuarioId);
+    
+    @Query("SELECT DISTINCT m.id FROM Solicitacao s JOIN s.modulos m " +
+           "WHERE s.usuario.id = :usuarioId AND m.id IN :moduloIds " +
            "AND s.status = 'ATIVO'")
-    boolean existsSolicitacaoAtivaParaModulo(@Param("usuarioId") Long usuarioId, @Param("moduloId") Long moduloId);
+    Set<Long> findModuloIdsComSolicitacaoAtiva(@Param("usuarioId") Long usuarioId, @Param("moduloIds") Collection<Long> moduloIds);
 }
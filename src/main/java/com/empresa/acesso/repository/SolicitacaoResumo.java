@@ -0,0 +1,34 @@
+package com.empresa.acesso.repository;
+
+import com.empresa.acesso.entity.enums.StatusSolicitacao;
+
+import java.time.LocalDateTime;
+
+/**
+ * Colunas de uma solicitação lidas diretamente pelas consultas de leitura, sem carregar a
+ * entidade. Os módulos chegam agregados em dois arrays paralelos, ordenados pelo id do módulo.
+ */
+public interface SolicitacaoResumo {
+    
+    Long getId();
+    
+    String getProtocolo();
+    
+    StatusSolicitacao getStatus();
+    
+    String getJustificativa();
+    
+    Boolean getUrgente();
+    
+    LocalDateTime getDataSolicitacao();
+    
+    LocalDateTime getDataExpiracao();
+    
+    String getMotivoNegacao();
+    
+    String getMotivoCancelamento();
+    
+    Long[] getModuloIds();
+    
+    String[] getModuloNomes();
+}
@@ -0,0 +1,39 @@
+package com.empresa.acesso.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Gravação direta de {@code usuario_modulos} com JDBC batch, sem inicializar a coleção
+ * {@code Usuario.modulosAtivos}. Quem grava por aqui invalida os direitos do usuário em
+ * {@link com.empresa.acesso.service.DireitosUsuarios}.
+ */
+@Repository
+@RequiredArgsConstructor
+public class UsuarioModulosRepository {
+    
+    private static final String CONCEDER_MODULO =
+        "INSERT INTO usuario_modulos (usuario_id, modulo_id) VALUES (?, ?)";
+    private static final String REVOGAR_MODULO =
+        "DELETE FROM usuario_modulos WHERE usuario_id = ? AND modulo_id = ?";
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    public void conceder(Long usuarioId, Collection<Long> moduloIds) {
+        jdbcTemplate.batchUpdate(CONCEDER_MODULO, parametros(usuarioId, moduloIds));
+    }
+    
+    public void revogar(Long usuarioId, Collection<Long> moduloIds) {
+        jdbcTemplate.batchUpdate(REVOGAR_MODULO, parametros(usuarioId, moduloIds));
+    }
+    
+    private List<Object[]> parametros(Long usuarioId, Collection<Long> moduloIds) {
+        return moduloIds.stream()
+            .map(moduloId -> new Object[] {usuarioId, moduloId})
+            .toList();
+    }
+}
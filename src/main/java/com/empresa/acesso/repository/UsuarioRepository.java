@@ -6,6 +6,8 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -13,6 +15,17 @@ public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
     
     Optional<Usuario> findByEmail(String email);
     
+    @Query(value = "SELECT id FROM usuarios WHERE id = :usuarioId FOR UPDATE", nativeQuery = true)
+    Optional<Long> travar(@Param("usuarioId") Long usuarioId);
+    
     @Query("SELECT COUNT(m) FROM Usuario u JOIN u.modulosAtivos m WHERE u.id = :usuarioId")
     long countModulosAtivosByUsuarioId(@Param("usuarioId") Long usuarioId);
+    
+    @Query("SELECT u.id AS usuarioId, u.departamento AS departamento, u.ativo AS ativo, m.id AS moduloId " +
+           "FROM Usuario u LEFT JOIN u.modulosAtivos m WHERE u.id = :usuarioId")
+    List<ModuloAtivoUsuario> findModulosAtivosByUsuarioId(@Param("usuarioId") Long usuarioId);
+    
+    @Query("SELECT u.id AS usuarioId, u.departamento AS departamento, u.ativo AS ativo, m.id AS moduloId " +
+           "FROM Usuario u LEFT JOIN u.modulosAtivos m WHERE u.id IN :usuarioIds")
+    List<ModuloAtivoUsuario> findModulosAtivosByUsuarioIdIn(@Param("usuarioIds") Collection<? extends Long> usuarioIds);
 }
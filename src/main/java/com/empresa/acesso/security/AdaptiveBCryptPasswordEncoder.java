@@ -0,0 +1,31 @@
+package com.empresa.acesso.security;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+/**
+ * BCrypt com custo configurável. Sinaliza rehash sempre que o custo do hash armazenado
+ * for diferente do configurado (o BCryptPasswordEncoder padrão só atualiza para custos maiores).
+ */
+public class AdaptiveBCryptPasswordEncoder extends BCryptPasswordEncoder {
+    
+    private final int strength;
+    
+    public AdaptiveBCryptPasswordEncoder(int strength) {
+        super(strength);
+        this.strength = strength;
+    }
+    
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null || encodedPassword.length() < 7 || encodedPassword.charAt(0) != '$') {
+            return false;
+        }
+        
+        try {
+            int custoArmazenado = Integer.parseInt(encodedPassword.substring(4, 6));
+            return custoArmazenado != strength;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.empresa.acesso.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Autentica os sistemas clientes da API de autorizações pelo cabeçalho {@code X-Api-Key}. Cada
+ * sistema é cadastrado em {@code autorizacao.clientes} como {@code nome:sha256-da-chave}, sem a
+ * chave em si na configuração, e recebe o papel SISTEMA. Usuários finais nunca têm esse papel.
+ * Sem o cabeçalho, ou com chave desconhecida, a requisição segue para o filtro JWT.
+ */
+@Component
+public class ClienteSistemaFilter extends OncePerRequestFilter {
+    
+    public static final String CABECALHO = "X-Api-Key";
+    public static final String PAPEL = "SISTEMA";
+    
+    private static final List<GrantedAuthority> AUTORIDADES = List.of(new SimpleGrantedAuthority("ROLE_" + PAPEL));
+    
+    // Nome do sistema pelo hash da chave
+    private final Map<String, String> clientes = new HashMap<>();
+    
+    public ClienteSistemaFilter(@Value("${autorizacao.clientes:}") List<String> clientes) {
+        for (String cliente : clientes) {
+            String[] partes = cliente.trim().split(":");
+            if (partes.length != 2 || partes[0].isBlank() || partes[1].length() != 64) {
+                throw new IllegalStateException("Cliente de autorização inválido, esperado nome:sha256: " + partes[0]);
+            }
+            this.clientes.put(partes[1].toLowerCase(), partes[0]);
+        }
+    }
+    
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain) throws ServletException, IOException {
+        
+        String chave = request.getHeader(CABECALHO);
+        if (chave != null && !clientes.isEmpty()
+                && SecurityContextHolder.getContext().getAuthentication() == null) {
+            String cliente = clientes.get(digest(chave));
+            if (cliente != null) {
+                UsernamePasswordAuthenticationToken authToken =
+                    new UsernamePasswordAuthenticationToken(cliente, null, AUTORIDADES);
+                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                SecurityContextHolder.getContext().setAuthentication(authToken);
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+    
+    private String digest(String chave) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha256.digest(chave.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponível", e);
+        }
+    }
+}
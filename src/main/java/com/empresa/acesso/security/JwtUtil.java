@@ -1,6 +1,7 @@
 package com.empresa.acesso.security;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
@@ -16,14 +17,20 @@ import java.util.function.Function;
 @Component
 public class JwtUtil {
     
-    @Value("${jwt.secret}")
-    private String secret;
+    public static final String CLAIM_USUARIO_ID = "uid";
+    public static final String CLAIM_DEPARTAMENTO = "dep";
+    public static final String CLAIM_ATIVO = "ativo";
     
-    @Value("${jwt.expiration}")
-    private Long expiration;
+    private final Long expiration;
+    private final SecretKey signingKey;
+    private final JwtParser parser;
     
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes());
+    public JwtUtil(@Value("${jwt.secret}") String secret, @Value("${jwt.expiration}") Long expiration) {
+        this.expiration = expiration;
+        this.signingKey = Keys.hmacShaKeyFor(secret.getBytes());
+        this.parser = Jwts.parser()
+            .verifyWith(signingKey)
+            .build();
     }
     
     public String extractUsername(String token) {
@@ -40,19 +47,24 @@ public class JwtUtil {
     }
     
     private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-            .verifyWith(getSigningKey())
-            .build()
-            .parseSignedClaims(token)
-            .getPayload();
+        return parser.parseSignedClaims(token).getPayload();
     }
     
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    /**
+     * Verifica assinatura e expiração com um único parse do token.
+     * Lança {@link io.jsonwebtoken.JwtException} quando o token é inválido ou está expirado.
+     */
+    public TokenClaims validateAndParse(String token) {
+        return TokenClaims.de(extractAllClaims(token));
     }
     
     public String generateToken(UserDetails userDetails) {
         Map<String, Object> claims = new HashMap<>();
+        if (userDetails instanceof UsuarioAutenticado usuario) {
+            claims.put(CLAIM_USUARIO_ID, usuario.getId());
+            claims.put(CLAIM_DEPARTAMENTO, usuario.getDepartamento());
+            claims.put(CLAIM_ATIVO, usuario.isAtivo());
+        }
         return createToken(claims, userDetails.getUsername());
     }
     
@@ -62,12 +74,12 @@ public class JwtUtil {
             .subject(subject)
             .issuedAt(new Date(System.currentTimeMillis()))
             .expiration(new Date(System.currentTimeMillis() + expiration))
-            .signWith(getSigningKey())
+            .signWith(signingKey)
             .compact();
     }
     
     public Boolean validateToken(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+        final TokenClaims claims = validateAndParse(token);
+        return (claims.getEmail().equals(userDetails.getUsername()) && !claims.isExpirado());
     }
 }
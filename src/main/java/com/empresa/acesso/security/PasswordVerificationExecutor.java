@@ -0,0 +1,98 @@
+package com.empresa.acesso.security;
+
+import com.empresa.acesso.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executa a verificação de senha (BCrypt) em um pool dedicado e limitado, fora das threads
+ * do Tomcat. Com o pool e a fila cheios o login é rejeitado imediatamente com 503.
+ */
+@Component
+public class PasswordVerificationExecutor implements DisposableBean {
+    
+    private static final ServiceUnavailableException SOBRECARGA =
+        new ServiceUnavailableException("Serviço de autenticação sobrecarregado. Tente novamente em instantes");
+    
+    private final AuthenticationManager authenticationManager;
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMs;
+    
+    public PasswordVerificationExecutor(
+            AuthenticationManager authenticationManager,
+            MeterRegistry meterRegistry,
+            @Value("${security.login.threads:0}") int threads,
+            @Value("${security.login.queue-capacity:64}") int queueCapacity,
+            @Value("${security.login.timeout-ms:5000}") long timeoutMs) {
+        this.authenticationManager = authenticationManager;
+        this.timeoutMs = timeoutMs;
+        
+        int tamanhoPool = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        BlockingQueue<Runnable> fila = queueCapacity > 0
+            ? new ArrayBlockingQueue<>(queueCapacity)
+            : new SynchronousQueue<>();
+        
+        this.executor = new ThreadPoolExecutor(
+            tamanhoPool, tamanhoPool, 0L, TimeUnit.MILLISECONDS, fila,
+            new ThreadFactoryNomeada("login-bcrypt-"),
+            new ThreadPoolExecutor.AbortPolicy()
+        );
+        new ExecutorServiceMetrics(executor, "login.bcrypt", Tags.empty()).bindTo(meterRegistry);
+    }
+    
+    public Authentication authenticate(Authentication authentication) {
+        Future<Authentication> resultado;
+        try {
+            resultado = executor.submit(() -> authenticationManager.authenticate(authentication));
+        } catch (RejectedExecutionException e) {
+            throw SOBRECARGA;
+        }
+        
+        try {
+            return resultado.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            resultado.cancel(true);
+            throw SOBRECARGA;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            resultado.cancel(true);
+            throw SOBRECARGA;
+        }
+    }
+    
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+    
+    private static class ThreadFactoryNomeada implements ThreadFactory {
+        
+        private final String prefixo;
+        private final AtomicInteger contador = new AtomicInteger();
+        
+        ThreadFactoryNomeada(String prefixo) {
+            this.prefixo = prefixo;
+        }
+        
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, prefixo + contador.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
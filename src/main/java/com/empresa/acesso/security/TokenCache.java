@@ -0,0 +1,92 @@
+package com.empresa.acesso.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+
+/**
+ * Cache de tokens já verificados, indexado pelo SHA-256 do token. Cada entrada expira junto
+ * com o token; requisições repetidas com o mesmo token não refazem a verificação HMAC.
+ */
+@Component
+public class TokenCache {
+    
+    private final JwtUtil jwtUtil;
+    private final Cache<String, TokenClaims> cache;
+    
+    public TokenCache(
+            JwtUtil jwtUtil,
+            MeterRegistry meterRegistry,
+            @Value("${jwt.cache.enabled:true}") boolean enabled,
+            @Value("${jwt.cache.max-size:10000}") long maxSize) {
+        this.jwtUtil = jwtUtil;
+        
+        if (!enabled) {
+            this.cache = null;
+            return;
+        }
+        
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfter(new ExpiraComToken())
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "jwt.tokens");
+    }
+    
+    /**
+     * Mesmo contrato de {@link JwtUtil#validateAndParse(String)}: lança
+     * {@link io.jsonwebtoken.JwtException} para tokens inválidos, que nunca entram no cache.
+     */
+    public TokenClaims validateAndParse(String token) {
+        if (cache == null) {
+            return jwtUtil.validateAndParse(token);
+        }
+        
+        String chave = digest(token);
+        TokenClaims claims = cache.getIfPresent(chave);
+        if (claims == null) {
+            claims = jwtUtil.validateAndParse(token);
+            cache.put(chave, claims);
+        }
+        return claims;
+    }
+    
+    private String digest(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha256.digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponível", e);
+        }
+    }
+    
+    private static class ExpiraComToken implements Expiry<String, TokenClaims> {
+        
+        @Override
+        public long expireAfterCreate(String chave, TokenClaims claims, long currentTime) {
+            return Math.max(0, Duration.between(Instant.now(), claims.getExpiracao()).toNanos());
+        }
+        
+        @Override
+        public long expireAfterUpdate(String chave, TokenClaims claims, long currentTime, long currentDuration) {
+            return expireAfterCreate(chave, claims, currentTime);
+        }
+        
+        @Override
+        public long expireAfterRead(String chave, TokenClaims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
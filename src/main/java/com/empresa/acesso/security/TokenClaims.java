@@ -0,0 +1,51 @@
+package com.empresa.acesso.security;
+
+import io.jsonwebtoken.Claims;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.Instant;
+
+@Getter
+@Builder
+@AllArgsConstructor
+public class TokenClaims {
+    
+    private final String email;
+    private final Long usuarioId;
+    private final String departamento;
+    private final boolean ativo;
+    private final Instant expiracao;
+    
+    public static TokenClaims de(Claims claims) {
+        Number usuarioId = claims.get(JwtUtil.CLAIM_USUARIO_ID, Number.class);
+        return TokenClaims.builder()
+            .email(claims.getSubject())
+            .usuarioId(usuarioId != null ? usuarioId.longValue() : null)
+            .departamento(claims.get(JwtUtil.CLAIM_DEPARTAMENTO, String.class))
+            .ativo(Boolean.TRUE.equals(claims.get(JwtUtil.CLAIM_ATIVO, Boolean.class)))
+            .expiracao(claims.getExpiration().toInstant())
+            .build();
+    }
+    
+    /**
+     * Tokens emitidos antes da autenticação stateless não trazem os dados do usuário.
+     */
+    public boolean possuiDadosUsuario() {
+        return usuarioId != null;
+    }
+    
+    public boolean isExpirado() {
+        return expiracao.isBefore(Instant.now());
+    }
+    
+    public UsuarioAutenticado toUsuarioAutenticado() {
+        return UsuarioAutenticado.builder()
+            .id(usuarioId)
+            .email(email)
+            .departamento(departamento)
+            .ativo(ativo)
+            .build();
+    }
+}
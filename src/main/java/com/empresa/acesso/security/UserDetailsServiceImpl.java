@@ -3,17 +3,16 @@ package com.empresa.acesso.security;
 import com.empresa.acesso.entity.Usuario;
 import com.empresa.acesso.repository.UsuarioRepository;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
-
-import java.util.ArrayList;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 @RequiredArgsConstructor
-public class UserDetailsServiceImpl implements UserDetailsService {
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
     
     private final UsuarioRepository usuarioRepository;
     
@@ -26,6 +25,16 @@ public class UserDetailsServiceImpl implements UserDetailsService {
             throw new UsernameNotFoundException("Usuário inativo");
         }
         
-        return new User(usuario.getEmail(), usuario.getSenha(), new ArrayList<>());
+        return UsuarioAutenticado.de(usuario);
+    }
+    
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        Usuario usuario = usuarioRepository.findByEmail(user.getUsername())
+            .orElseThrow(() -> new UsernameNotFoundException("Usuário não encontrado: " + user.getUsername()));
+        
+        usuario.setSenha(newPassword);
+        return UsuarioAutenticado.de(usuarioRepository.save(usuario));
     }
 }
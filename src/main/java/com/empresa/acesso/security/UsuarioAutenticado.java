@@ -0,0 +1,68 @@
+package com.empresa.acesso.security;
+
+import com.empresa.acesso.entity.Usuario;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.Collections;
+
+@Getter
+@Builder
+@AllArgsConstructor
+public class UsuarioAutenticado implements UserDetails {
+    
+    private final Long id;
+    private final String email;
+    private final String senha;
+    private final String departamento;
+    private final boolean ativo;
+    
+    public static UsuarioAutenticado de(Usuario usuario) {
+        return UsuarioAutenticado.builder()
+            .id(usuario.getId())
+            .email(usuario.getEmail())
+            .senha(usuario.getSenha())
+            .departamento(usuario.getDepartamento())
+            .ativo(Boolean.TRUE.equals(usuario.getAtivo()))
+            .build();
+    }
+    
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return Collections.emptyList();
+    }
+    
+    @Override
+    public String getPassword() {
+        return senha;
+    }
+    
+    @Override
+    public String getUsername() {
+        return email;
+    }
+    
+    @Override
+    public boolean isAccountNonExpired() {
+        return true;
+    }
+    
+    @Override
+    public boolean isAccountNonLocked() {
+        return true;
+    }
+    
+    @Override
+    public boolean isCredentialsNonExpired() {
+        return true;
+    }
+    
+    @Override
+    public boolean isEnabled() {
+        return ativo;
+    }
+}
@@ -5,12 +5,13 @@ import com.empresa.acesso.dto.LoginRequest;
 import com.empresa.acesso.dto.RefreshTokenRequest;
 import com.empresa.acesso.entity.RefreshToken;
 import com.empresa.acesso.entity.Usuario;
+import com.empresa.acesso.exception.CodigoErro;
 import com.empresa.acesso.exception.UnauthorizedException;
 import com.empresa.acesso.repository.UsuarioRepository;
 import com.empresa.acesso.security.JwtUtil;
+import com.empresa.acesso.security.PasswordVerificationExecutor;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -21,7 +22,10 @@ import org.springframework.transaction.annotation.Transactional;
 @RequiredArgsConstructor
 public class AuthService {
     
-    private final AuthenticationManager authenticationManager;
+    private static final UnauthorizedException USUARIO_NAO_ENCONTRADO =
+        new UnauthorizedException(CodigoErro.USUARIO_NAO_ENCONTRADO, "Usuário não encontrado");
+    
+    private final PasswordVerificationExecutor passwordVerificationExecutor;
     private final JwtUtil jwtUtil;
     private final UserDetailsService userDetailsService;
     private final RefreshTokenService refreshTokenService;
@@ -30,9 +34,8 @@ public class AuthService {
     @Value("${jwt.expiration}")
     private Long jwtExpiration;
     
-    @Transactional
     public AuthResponse login(LoginRequest request) {
-        authenticationManager.authenticate(
+        passwordVerificationExecutor.authenticate(
             new UsernamePasswordAuthenticationToken(request.getEmail(), request.getPassword())
         );
         
@@ -40,7 +43,7 @@ public class AuthService {
         String accessToken = jwtUtil.generateToken(userDetails);
         
         Usuario usuario = usuarioRepository.findByEmail(request.getEmail())
-            .orElseThrow(() -> new UnauthorizedException("Usuário não encontrado"));
+            .orElseThrow(() -> USUARIO_NAO_ENCONTRADO);
         
         RefreshToken refreshToken = refreshTokenService.createRefreshToken(usuario.getId());
         
@@ -0,0 +1,60 @@
+package com.empresa.acesso.service;
+
+import com.empresa.acesso.dto.ConsultaAcessoRequest;
+import com.empresa.acesso.dto.DecisaoAcessoResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Decisões de acesso para outros sistemas, respondidas só com dados em memória: os direitos do
+ * usuário em {@link DireitosUsuarios}, mantidos em dia entre os nós por
+ * {@link SincronizacaoDireitos}, e o catálogo em {@link CatalogoModulos}. O banco só é
+ * consultado para os usuários que não estão em cache, uma vez por requisição.
+ */
+@Service
+@RequiredArgsConstructor
+public class AutorizacaoService {
+    
+    private final DireitosUsuarios direitosUsuarios;
+    private final CatalogoModulos catalogoModulos;
+    
+    /**
+     * Usuário ativo, com o módulo entre seus módulos ativos, e módulo ativo no catálogo.
+     * Usuários e módulos inexistentes são negados.
+     */
+    public boolean possuiAcesso(Long usuarioId, Long moduloId) {
+        return possuiAcesso(direitosUsuarios.buscarSeExistir(usuarioId), moduloId, catalogoModulos.snapshot());
+    }
+    
+    /**
+     * Decisões na mesma ordem das consultas, todas contra o mesmo snapshot do catálogo. Os
+     * usuários fora do cache são carregados juntos, em uma única consulta.
+     */
+    public List<DecisaoAcessoResponse> verificar(List<ConsultaAcessoRequest> consultas) {
+        CatalogoSnapshot catalogo = catalogoModulos.snapshot();
+        Map<Long, DireitosUsuario> direitos = direitosUsuarios.buscarTodos(consultas.stream()
+            .map(ConsultaAcessoRequest::getUsuarioId)
+            .collect(Collectors.toSet()));
+        List<DecisaoAcessoResponse> decisoes = new ArrayList<>(consultas.size());
+        for (ConsultaAcessoRequest consulta : consultas) {
+            decisoes.add(DecisaoAcessoResponse.builder()
+                .usuarioId(consulta.getUsuarioId())
+                .moduloId(consulta.getModuloId())
+                .permitido(possuiAcesso(direitos.get(consulta.getUsuarioId()), consulta.getModuloId(), catalogo))
+                .build());
+        }
+        return decisoes;
+    }
+    
+    private boolean possuiAcesso(DireitosUsuario direitos, Long moduloId, CatalogoSnapshot catalogo) {
+        return direitos != null
+            && direitos.isAtivo()
+            && direitos.possui(moduloId)
+            && catalogo.buscar(moduloId).map(ModuloCatalogo::isAtivo).orElse(false);
+    }
+}
@@ -0,0 +1,100 @@
+package com.empresa.acesso.service;
+
+import com.empresa.acesso.entity.CatalogoVersao;
+import com.empresa.acesso.entity.Modulo;
+import com.empresa.acesso.repository.CatalogoVersaoRepository;
+import com.empresa.acesso.repository.ModuloRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Mantém em memória o catálogo de módulos. Alterações nas tabelas do catálogo incrementam
+ * {@code catalogo_versao} (triggers da migração V4); cada nó verifica a versão periodicamente
+ * e troca o snapshot inteiro quando ela muda. A mesma verificação esvazia as regiões de
+ * {@link Modulo} no cache de segundo nível do nó, que é local.
+ */
+@Service
+public class CatalogoModulos {
+    
+    public static final List<String> REGIOES_CACHE = List.of(
+        Modulo.REGIAO_CACHE,
+        Modulo.REGIAO_CACHE_DEPARTAMENTOS,
+        Modulo.REGIAO_CACHE_INCOMPATIVEIS);
+    
+    private final ModuloRepository moduloRepository;
+    private final CatalogoVersaoRepository catalogoVersaoRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+    private final ReentrantLock lock = new ReentrantLock();
+    
+    private volatile CatalogoSnapshot snapshot;
+    
+    public CatalogoModulos(
+            ModuloRepository moduloRepository,
+            CatalogoVersaoRepository catalogoVersaoRepository,
+            PlatformTransactionManager transactionManager,
+            EntityManagerFactory entityManagerFactory) {
+        this.moduloRepository = moduloRepository;
+        this.catalogoVersaoRepository = catalogoVersaoRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.entityManagerFactory = entityManagerFactory;
+    }
+    
+    public CatalogoSnapshot snapshot() {
+        CatalogoSnapshot atual = snapshot;
+        return atual != null ? atual : recarregar(false);
+    }
+    
+    /**
+     * Descarta o snapshot atual; o próximo acesso relê o catálogo do banco.
+     */
+    public void invalidar() {
+        descartarCacheModulos();
+        snapshot = null;
+    }
+    
+    @Scheduled(fixedDelayString = "${catalogo.intervalo-verificacao-ms:5000}")
+    public void verificarVersao() {
+        CatalogoSnapshot atual = snapshot;
+        if (atual != null && atual.getVersao() != versaoAtual()) {
+            descartarCacheModulos();
+            recarregar(true);
+        }
+    }
+    
+    private CatalogoSnapshot recarregar(boolean forcar) {
+        lock.lock();
+        try {
+            if (!forcar && snapshot != null) {
+                return snapshot;
+            }
+            // A versão é lida antes dos módulos: uma alteração concorrente gera nova recarga
+            CatalogoSnapshot novo = transactionTemplate.execute(status ->
+                CatalogoSnapshot.de(versaoAtual(), moduloRepository.findAllComRegras()));
+            snapshot = novo;
+            return novo;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    private void descartarCacheModulos() {
+        Cache cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        REGIOES_CACHE.forEach(cache::evictRegion);
+    }
+    
+    private long versaoAtual() {
+        return catalogoVersaoRepository.findById(CatalogoVersao.ID)
+            .map(CatalogoVersao::getVersao)
+            .orElse(0L);
+    }
+}
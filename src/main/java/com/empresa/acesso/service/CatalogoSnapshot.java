@@ -0,0 +1,55 @@
+package com.empresa.acesso.service;
+
+import com.empresa.acesso.entity.Modulo;
+import lombok.Getter;
+
+import java.util.*;
+
+/**
+ * Catálogo de módulos imutável, identificado pela versão do catálogo no banco de onde foi lido.
+ */
+public class CatalogoSnapshot {
+    
+    @Getter
+    private final long versao;
+    private final Map<Long, ModuloCatalogo> modulos;
+    @Getter
+    private final List<ModuloCatalogo> ativos;
+    @Getter
+    private final RegrasCatalogo regras;
+    
+    private CatalogoSnapshot(long versao, Map<Long, ModuloCatalogo> modulos) {
+        this.versao = versao;
+        this.modulos = modulos;
+        this.ativos = modulos.values().stream()
+            .filter(ModuloCatalogo::isAtivo)
+            .toList();
+        this.regras = RegrasCatalogo.compilar(List.copyOf(modulos.values()));
+    }
+    
+    public static CatalogoSnapshot de(long versao, Collection<Modulo> modulos) {
+        Map<Long, ModuloCatalogo> porId = new LinkedHashMap<>();
+        modulos.stream()
+            .sorted(Comparator.comparing(Modulo::getId))
+            .forEach(modulo -> porId.put(modulo.getId(), ModuloCatalogo.de(modulo)));
+        return new CatalogoSnapshot(versao, Collections.unmodifiableMap(porId));
+    }
+    
+    public Optional<ModuloCatalogo> buscar(Long id) {
+        return Optional.ofNullable(modulos.get(id));
+    }
+    
+    /**
+     * Módulos do catálogo com os ids informados; ids inexistentes são ignorados.
+     */
+    public List<ModuloCatalogo> buscarTodos(Collection<Long> ids) {
+        List<ModuloCatalogo> encontrados = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            ModuloCatalogo modulo = modulos.get(id);
+            if (modulo != null) {
+                encontrados.add(modulo);
+            }
+        }
+        return encontrados;
+    }
+}
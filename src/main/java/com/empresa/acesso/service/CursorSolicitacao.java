@@ -0,0 +1,49 @@
+package com.empresa.acesso.service;
+
+import com.empresa.acesso.exception.BusinessException;
+import com.empresa.acesso.exception.CodigoErro;
+import com.empresa.acesso.repository.SolicitacaoResumo;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Posição na listagem ordenada por (data_solicitacao DESC, id DESC). Para o cliente é um
+ * valor opaco em Base64 URL-safe.
+ */
+@Getter
+@AllArgsConstructor
+public class CursorSolicitacao {
+    
+    private static final String SEPARADOR = "|";
+    private static final BusinessException CURSOR_INVALIDO =
+        new BusinessException(CodigoErro.CURSOR_INVALIDO, "Cursor inválido");
+    
+    private final LocalDateTime dataSolicitacao;
+    private final Long id;
+    
+    public static CursorSolicitacao de(SolicitacaoResumo solicitacao) {
+        return new CursorSolicitacao(solicitacao.getDataSolicitacao(), solicitacao.getId());
+    }
+    
+    public static CursorSolicitacao decodificar(String cursor) {
+        try {
+            String valor = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separador = valor.indexOf(SEPARADOR);
+            return new CursorSolicitacao(
+                LocalDateTime.parse(valor.substring(0, separador)),
+                Long.parseLong(valor.substring(separador + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw CURSOR_INVALIDO;
+        }
+    }
+    
+    public String codificar() {
+        String valor = dataSolicitacao + SEPARADOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(valor.getBytes(StandardCharsets.UTF_8));
+    }
+}
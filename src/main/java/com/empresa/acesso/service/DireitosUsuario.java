@@ -0,0 +1,68 @@
+package com.empresa.acesso.service;
+
+import lombok.Getter;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Snapshot imutável dos módulos ativos de um usuário: ids ordenados em um vetor primitivo, sem
+ * duplicatas. As consultas usam busca binária e não criam coleções nem objetos por chamada.
+ */
+public final class DireitosUsuario {
+    
+    @Getter
+    private final long usuarioId;
+    @Getter
+    private final String departamento;
+    @Getter
+    private final boolean ativo;
+    private final long[] modulosIds;
+    
+    private DireitosUsuario(long usuarioId, String departamento, boolean ativo, long[] modulosIds) {
+        this.usuarioId = usuarioId;
+        this.departamento = departamento;
+        this.ativo = ativo;
+        this.modulosIds = modulosIds;
+    }
+    
+    /**
+     * @param modulosIds vetor que passa a pertencer ao snapshot; é ordenado e deduplicado aqui
+     */
+    public static DireitosUsuario de(long usuarioId, String departamento, boolean ativo, long[] modulosIds) {
+        Arrays.sort(modulosIds);
+        int distintos = 0;
+        for (int i = 0; i < modulosIds.length; i++) {
+            if (distintos == 0 || modulosIds[distintos - 1] != modulosIds[i]) {
+                modulosIds[distintos++] = modulosIds[i];
+            }
+        }
+        return new DireitosUsuario(usuarioId, departamento, ativo,
+            distintos == modulosIds.length ? modulosIds : Arrays.copyOf(modulosIds, distintos));
+    }
+    
+    public boolean possui(long moduloId) {
+        return Arrays.binarySearch(modulosIds, moduloId) >= 0;
+    }
+    
+    public int quantidade() {
+        return modulosIds.length;
+    }
+    
+    /**
+     * Novo snapshot com os módulos concedidos somados aos atuais.
+     */
+    public DireitosUsuario comConcedidos(Collection<Long> moduloIds) {
+        long[] novos = Arrays.copyOf(modulosIds, modulosIds.length + moduloIds.size());
+        int i = modulosIds.length;
+        for (Long moduloId : moduloIds) {
+            novos[i++] = moduloId;
+        }
+        return de(usuarioId, departamento, ativo, novos);
+    }
+    
+    // Sem cópia: apenas as regras compiladas, no mesmo pacote, leem o vetor
+    long[] modulosIds() {
+        return modulosIds;
+    }
+}
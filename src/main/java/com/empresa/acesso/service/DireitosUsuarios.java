@@ -0,0 +1,210 @@
+package com.empresa.acesso.service;
+
+import com.empresa.acesso.exception.CodigoErro;
+import com.empresa.acesso.exception.ResourceNotFoundException;
+import com.empresa.acesso.repository.ModuloAtivoUsuario;
+import com.empresa.acesso.repository.UsuarioModulosRepository;
+import com.empresa.acesso.repository.UsuarioRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Cache local dos direitos de cada usuário, limitado em tamanho. Toda gravação em
+ * {@code usuario_modulos} feita pela aplicação passa por aqui: o usuário alterado é lido do
+ * banco até o fim da transação e sua entrada é descartada quando ela termina. Alterações de
+ * outros nós, ou feitas direto no banco, chegam por {@link SincronizacaoDireitos}; o tempo de
+ * vida curto só limita o atraso se a sincronização falhar. Usuários inexistentes também ficam
+ * em cache, até serem criados.
+ */
+@Service
+public class DireitosUsuarios {
+    
+    private static final ResourceNotFoundException USUARIO_NAO_ENCONTRADO =
+        new ResourceNotFoundException(CodigoErro.USUARIO_NAO_ENCONTRADO, "Usuário não encontrado");
+    
+    // Entrada de usuário inexistente: o Caffeine não guarda nulos
+    private static final DireitosUsuario INEXISTENTE = DireitosUsuario.de(0L, null, false, new long[0]);
+    
+    private final UsuarioRepository usuarioRepository;
+    private final UsuarioModulosRepository usuarioModulosRepository;
+    private final Cache<Long, DireitosUsuario> cache;
+    
+    public DireitosUsuarios(
+            UsuarioRepository usuarioRepository,
+            UsuarioModulosRepository usuarioModulosRepository,
+            MeterRegistry meterRegistry,
+            @Value("${direitos.cache.max-size:10000}") long maxSize,
+            @Value("${direitos.cache.ttl:30s}") Duration ttl) {
+        this.usuarioRepository = usuarioRepository;
+        this.usuarioModulosRepository = usuarioModulosRepository;
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(ttl)
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "direitos.usuarios");
+    }
+    
+    /**
+     * @throws ResourceNotFoundException quando o usuário não existe
+     */
+    public DireitosUsuario buscar(Long usuarioId) {
+        DireitosUsuario direitos = buscarSeExistir(usuarioId);
+        if (direitos == null) {
+            throw USUARIO_NAO_ENCONTRADO;
+        }
+        return direitos;
+    }
+    
+    /**
+     * @return null quando o usuário não existe
+     */
+    public DireitosUsuario buscarSeExistir(Long usuarioId) {
+        DireitosUsuario direitos = alteradosNaTransacao().contains(usuarioId)
+            ? carregar(usuarioId)
+            : cache.get(usuarioId, this::carregar);
+        return direitos != INEXISTENTE ? direitos : null;
+    }
+    
+    /**
+     * Para validações que decidem uma gravação: lê do banco, nunca do cache, e trava a linha do
+     * usuário até o fim da transação. Criações simultâneas do mesmo usuário, em qualquer nó,
+     * validam limites e acessos existentes uma depois da outra.
+     *
+     * @throws ResourceNotFoundException quando o usuário não existe
+     */
+    public DireitosUsuario buscarParaAlteracao(Long usuarioId) {
+        if (usuarioRepository.travar(usuarioId).isEmpty()) {
+            throw USUARIO_NAO_ENCONTRADO;
+        }
+        return carregar(usuarioId);
+    }
+    
+    /**
+     * Direitos de vários usuários, com uma única consulta para todos os que não estão em cache.
+     * Usuários inexistentes ficam fora do mapa.
+     */
+    public Map<Long, DireitosUsuario> buscarTodos(Collection<Long> usuarioIds) {
+        Set<Long> alterados = alteradosNaTransacao();
+        Set<Long> emCache = new HashSet<>(usuarioIds);
+        Set<Long> doBanco = new HashSet<>();
+        for (Long usuarioId : alterados) {
+            if (emCache.remove(usuarioId)) {
+                doBanco.add(usuarioId);
+            }
+        }
+        
+        Map<Long, DireitosUsuario> direitos = new HashMap<>(cache.getAll(emCache, this::carregarTodos));
+        if (!doBanco.isEmpty()) {
+            direitos.putAll(carregarTodos(doBanco));
+        }
+        direitos.values().removeIf(encontrado -> encontrado == INEXISTENTE);
+        return direitos;
+    }
+    
+    /**
+     * Descarta as entradas de usuários alterados fora deste nó.
+     */
+    public void descartar(Collection<Long> usuarioIds) {
+        cache.invalidateAll(usuarioIds);
+    }
+    
+    public void descartarTodos() {
+        cache.invalidateAll();
+    }
+    
+    public void conceder(Long usuarioId, Collection<Long> moduloIds) {
+        if (!moduloIds.isEmpty()) {
+            usuarioModulosRepository.conceder(usuarioId, moduloIds);
+            registrarAlteracao(usuarioId);
+        }
+    }
+    
+    public void revogar(Long usuarioId, Collection<Long> moduloIds) {
+        if (!moduloIds.isEmpty()) {
+            usuarioModulosRepository.revogar(usuarioId, moduloIds);
+            registrarAlteracao(usuarioId);
+        }
+    }
+    
+    /**
+     * Para gravações feitas fora deste serviço, como a expiração em lote. Dentro de uma
+     * transação o descarte acontece quando ela termina; sem transação, imediatamente.
+     */
+    public void registrarAlteracao(Long usuarioId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            cache.invalidate(usuarioId);
+            return;
+        }
+        
+        @SuppressWarnings("unchecked")
+        Set<Long> alterados = (Set<Long>) TransactionSynchronizationManager.getResource(this);
+        if (alterados == null) {
+            Set<Long> novos = new HashSet<>();
+            TransactionSynchronizationManager.bindResource(this, novos);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(DireitosUsuarios.this);
+                    cache.invalidateAll(novos);
+                }
+            });
+            alterados = novos;
+        }
+        alterados.add(usuarioId);
+    }
+    
+    private Set<Long> alteradosNaTransacao() {
+        @SuppressWarnings("unchecked")
+        Set<Long> alterados = (Set<Long>) TransactionSynchronizationManager.getResource(this);
+        return alterados != null ? alterados : Set.of();
+    }
+    
+    private DireitosUsuario carregar(Long usuarioId) {
+        return montar(usuarioId, usuarioRepository.findModulosAtivosByUsuarioId(usuarioId));
+    }
+    
+    private Map<Long, DireitosUsuario> carregarTodos(Set<? extends Long> usuarioIds) {
+        Map<Long, List<ModuloAtivoUsuario>> linhasPorUsuario = usuarioRepository
+            .findModulosAtivosByUsuarioIdIn(usuarioIds).stream()
+            .collect(Collectors.groupingBy(ModuloAtivoUsuario::getUsuarioId));
+        Map<Long, DireitosUsuario> direitos = new HashMap<>();
+        for (Long usuarioId : usuarioIds) {
+            direitos.put(usuarioId, montar(usuarioId, linhasPorUsuario.getOrDefault(usuarioId, List.of())));
+        }
+        return direitos;
+    }
+    
+    private DireitosUsuario montar(Long usuarioId, List<ModuloAtivoUsuario> linhas) {
+        if (linhas.isEmpty()) {
+            return INEXISTENTE;
+        }
+        
+        long[] modulosIds = new long[linhas.size()];
+        int quantidade = 0;
+        for (ModuloAtivoUsuario linha : linhas) {
+            if (linha.getModuloId() != null) {
+                modulosIds[quantidade++] = linha.getModuloId();
+            }
+        }
+        ModuloAtivoUsuario usuario = linhas.get(0);
+        return DireitosUsuario.de(usuarioId, usuario.getDepartamento(), Boolean.TRUE.equals(usuario.getAtivo()),
+            quantidade == modulosIds.length ? modulosIds : Arrays.copyOf(modulosIds, quantidade));
+    }
+}
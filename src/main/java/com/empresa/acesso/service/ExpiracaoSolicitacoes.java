@@ -0,0 +1,95 @@
+package com.empresa.acesso.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Expira as solicitações ATIVO com data de expiração vencida: muda o status, revoga os módulos
+ * do usuário e registra o histórico, em lotes de um único comando SQL. Cada lote trava suas
+ * linhas com FOR UPDATE SKIP LOCKED; nós varrendo ao mesmo tempo pegam lotes disjuntos.
+ */
+@Service
+public class ExpiracaoSolicitacoes {
+    
+    private static final String DESCRICAO_HISTORICO = "Acesso expirado automaticamente";
+    
+    // Um módulo só é revogado se nenhuma outra solicitação ATIVO do usuário fora do lote o concede.
+    // Devolve o usuário de cada solicitação expirada, para descartar seus direitos em cache
+    private static final String EXPIRAR_LOTE =
+        "WITH vencidas AS (" +
+        "    SELECT id, usuario_id FROM solicitacoes " +
+        "    WHERE status = 'ATIVO' AND data_expiracao <= ? " +
+        "    ORDER BY data_expiracao " +
+        "    LIMIT ? " +
+        "    FOR UPDATE SKIP LOCKED" +
+        "), expiradas AS (" +
+        "    UPDATE solicitacoes s SET status = 'EXPIRADO', versao = s.versao + 1 " +
+        "    FROM vencidas v WHERE s.id = v.id " +
+        "    RETURNING s.id, s.usuario_id" +
+        "), revogados AS (" +
+        "    DELETE FROM usuario_modulos um " +
+        "    USING vencidas v, solicitacao_modulos sm " +
+        "    WHERE sm.solicitacao_id = v.id AND um.usuario_id = v.usuario_id AND um.modulo_id = sm.modulo_id " +
+        "    AND NOT EXISTS (SELECT 1 FROM solicitacoes o " +
+        "                    JOIN solicitacao_modulos om ON om.solicitacao_id = o.id " +
+        "                    WHERE o.usuario_id = v.usuario_id AND om.modulo_id = sm.modulo_id " +
+        "                    AND o.status = 'ATIVO' AND o.id NOT IN (SELECT id FROM vencidas))" +
+        "), historico AS (" +
+        "    INSERT INTO historico_solicitacoes (solicitacao_id, descricao, data_hora) " +
+        "    SELECT id, '" + DESCRICAO_HISTORICO + "', ? FROM expiradas" +
+        ") " +
+        "SELECT usuario_id FROM expiradas";
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final DireitosUsuarios direitosUsuarios;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean habilitada;
+    private final int tamanhoLote;
+    
+    public ExpiracaoSolicitacoes(
+            JdbcTemplate jdbcTemplate,
+            DireitosUsuarios direitosUsuarios,
+            PlatformTransactionManager transactionManager,
+            @Value("${expiracao.habilitada:true}") boolean habilitada,
+            @Value("${expiracao.tamanho-lote:500}") int tamanhoLote) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.direitosUsuarios = direitosUsuarios;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.habilitada = habilitada;
+        this.tamanhoLote = tamanhoLote;
+    }
+    
+    @Scheduled(fixedDelayString = "${expiracao.intervalo-ms:60000}")
+    public void executar() {
+        if (habilitada) {
+            expirarVencidas(LocalDateTime.now());
+        }
+    }
+    
+    /**
+     * Processa lotes até não sobrar solicitação vencida livre e retorna quantas foram expiradas.
+     * Cada lote é uma transação própria, então as travas duram apenas um lote.
+     */
+    public int expirarVencidas(LocalDateTime agora) {
+        Timestamp momento = Timestamp.valueOf(agora);
+        int total = 0;
+        int expiradas;
+        do {
+            expiradas = transactionTemplate.execute(status -> {
+                List<Long> usuarios = jdbcTemplate.queryForList(EXPIRAR_LOTE, Long.class, momento, tamanhoLote, momento);
+                usuarios.forEach(direitosUsuarios::registrarAlteracao);
+                return usuarios.size();
+            });
+            total += expiradas;
+        } while (expiradas == tamanhoLote);
+        return total;
+    }
+}
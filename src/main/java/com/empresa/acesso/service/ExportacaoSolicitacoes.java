@@ -0,0 +1,268 @@
+package com.empresa.acesso.service;
+
+import com.empresa.acesso.dto.ModuloSimpleResponse;
+import com.empresa.acesso.dto.SolicitacaoResponse;
+import com.empresa.acesso.entity.enums.StatusSolicitacao;
+import com.empresa.acesso.exception.ServiceUnavailableException;
+import com.empresa.acesso.repository.SolicitacaoRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.sql.Array;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Exporta todas as solicitações do usuário que atendem aos filtros da listagem. As linhas
+ * são lidas em páginas pela mesma chave da listagem por cursor e escritas na saída página a
+ * página, sem montar o resultado em memória. Cada página é uma consulta curta: a conexão volta
+ * ao pool antes da escrita, e um cliente lento não prende conexão nem transação.
+ *
+ * Como as páginas são lidas em momentos diferentes, uma exportação longa não é um retrato de um
+ * único instante. O número de exportações simultâneas no nó é limitado; acima dele a exportação
+ * é recusada com 503 antes de começar.
+ */
+@Service
+public class ExportacaoSolicitacoes {
+    
+    private static final String PRIMEIRA_PAGINA = SolicitacaoRepository.COLUNAS_RESUMO
+        + SolicitacaoRepository.FILTROS_CURSOR
+        + "ORDER BY s.data_solicitacao DESC, s.id DESC LIMIT :limite";
+    
+    private static final String PROXIMA_PAGINA = SolicitacaoRepository.COLUNAS_RESUMO
+        + SolicitacaoRepository.FILTROS_CURSOR
+        + "AND (s.data_solicitacao, s.id) < (:cursorData, :cursorId) "
+        + "ORDER BY s.data_solicitacao DESC, s.id DESC LIMIT :limite";
+    
+    private static final ServiceUnavailableException SOBRECARGA =
+        new ServiceUnavailableException("Muitas exportações em andamento. Tente novamente em instantes");
+    
+    private static final String CABECALHO_CSV = "id,protocolo,status,urgente,dataSolicitacao,dataExpiracao,"
+        + "modulos,justificativa,motivoNegacao,motivoCancelamento\n";
+    
+    @Getter
+    @RequiredArgsConstructor
+    public enum Formato {
+        NDJSON(MediaType.APPLICATION_NDJSON, "ndjson"),
+        CSV(new MediaType("text", "csv", StandardCharsets.UTF_8), "csv");
+        
+        private final MediaType contentType;
+        private final String extensao;
+    }
+    
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final ObjectWriter objectWriter;
+    private final ObjectMapper objectMapper;
+    private final int tamanhoPagina;
+    private final Semaphore vagas;
+    @Getter
+    private final Duration tempoLimite;
+    
+    public ExportacaoSolicitacoes(
+            NamedParameterJdbcTemplate jdbcTemplate,
+            ObjectMapper objectMapper,
+            @Value("${exportacao.tamanho-pagina:500}") int tamanhoPagina,
+            @Value("${exportacao.maximo-simultaneas:4}") int maximoSimultaneas,
+            @Value("${exportacao.tempo-limite:10m}") Duration tempoLimite) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.objectWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.tamanhoPagina = tamanhoPagina;
+        this.vagas = new Semaphore(maximoSimultaneas);
+        this.tempoLimite = tempoLimite;
+    }
+    
+    /**
+     * Exportação com uma vaga reservada. A vaga é devolvida uma única vez: ao fim da escrita, ou
+     * por {@link #liberar()} quando a requisição termina (tempo limite, erro, cliente desconectado)
+     * sem que o corpo chegue a ser escrito.
+     */
+    public static class Exportacao implements StreamingResponseBody {
+        
+        private final Semaphore vagas;
+        private final StreamingResponseBody corpo;
+        private final AtomicBoolean liberada = new AtomicBoolean();
+        
+        Exportacao(Semaphore vagas, StreamingResponseBody corpo) {
+            this.vagas = vagas;
+            this.corpo = corpo;
+        }
+        
+        @Override
+        public void writeTo(OutputStream saida) throws IOException {
+            try {
+                corpo.writeTo(saida);
+            } finally {
+                liberar();
+            }
+        }
+        
+        public void liberar() {
+            if (liberada.compareAndSet(false, true)) {
+                vagas.release();
+            }
+        }
+    }
+    
+    /**
+     * Reserva uma das vagas de exportação. Sem vaga, falha com 503 antes de qualquer byte ser
+     * escrito. Quem recebe a exportação deve garantir o {@link Exportacao#liberar()} quando a
+     * requisição terminar.
+     */
+    public Exportacao iniciar(
+            Long usuarioId,
+            String texto,
+            StatusSolicitacao status,
+            Boolean urgente,
+            LocalDateTime dataInicio,
+            LocalDateTime dataFim,
+            Formato formato) {
+        if (!vagas.tryAcquire()) {
+            throw SOBRECARGA;
+        }
+        return new Exportacao(vagas,
+            saida -> exportar(usuarioId, texto, status, urgente, dataInicio, dataFim, formato, saida));
+    }
+    
+    public void exportar(
+            Long usuarioId,
+            String texto,
+            StatusSolicitacao status,
+            Boolean urgente,
+            LocalDateTime dataInicio,
+            LocalDateTime dataFim,
+            Formato formato,
+            OutputStream saida) throws IOException {
+        
+        MapSqlParameterSource parametros = new MapSqlParameterSource()
+            .addValue("usuarioId", usuarioId, Types.BIGINT)
+            .addValue("texto", texto, Types.VARCHAR)
+            .addValue("status", status != null ? status.name() : null, Types.VARCHAR)
+            .addValue("urgente", urgente, Types.BOOLEAN)
+            .addValue("dataInicio", dataInicio != null ? dataInicio.toString() : null, Types.VARCHAR)
+            .addValue("dataFim", dataFim != null ? dataFim.toString() : null, Types.VARCHAR)
+            .addValue("limite", tamanhoPagina);
+        
+        Writer escritor = new BufferedWriter(new OutputStreamWriter(saida, StandardCharsets.UTF_8));
+        JsonGenerator json = objectMapper.getFactory().createGenerator(escritor)
+            .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        // Cada valor termina com quebra de linha; sem o espaço que o Jackson põe entre valores de raiz
+        json.setRootValueSeparator(null);
+        if (formato == Formato.CSV) {
+            escritor.write(CABECALHO_CSV);
+        }
+        
+        List<SolicitacaoResponse> pagina = jdbcTemplate.query(PRIMEIRA_PAGINA, parametros, (rs, i) -> lerLinha(rs));
+        while (true) {
+            for (SolicitacaoResponse solicitacao : pagina) {
+                if (formato == Formato.NDJSON) {
+                    objectWriter.writeValue(json, solicitacao);
+                    json.writeRaw('\n');
+                } else {
+                    escreverCsv(escritor, solicitacao);
+                }
+            }
+            // Entrega cada página ao cliente antes de buscar a próxima
+            json.flush();
+            escritor.flush();
+            
+            if (pagina.size() < tamanhoPagina) {
+                return;
+            }
+            SolicitacaoResponse ultima = pagina.get(pagina.size() - 1);
+            parametros
+                .addValue("cursorData", Timestamp.valueOf(ultima.getDataSolicitacao()), Types.TIMESTAMP)
+                .addValue("cursorId", ultima.getId(), Types.BIGINT);
+            pagina = jdbcTemplate.query(PROXIMA_PAGINA, parametros, (rs, i) -> lerLinha(rs));
+        }
+    }
+    
+    private SolicitacaoResponse lerLinha(ResultSet rs) throws SQLException {
+        return SolicitacaoResponse.builder()
+            .id(rs.getLong("id"))
+            .protocolo(rs.getString("protocolo"))
+            .modulos(lerModulos(rs.getArray("moduloIds"), rs.getArray("moduloNomes")))
+            .status(StatusSolicitacao.valueOf(rs.getString("status")))
+            .justificativa(rs.getString("justificativa"))
+            .urgente(rs.getBoolean("urgente"))
+            .dataSolicitacao(paraLocalDateTime(rs.getTimestamp("dataSolicitacao")))
+            .dataExpiracao(paraLocalDateTime(rs.getTimestamp("dataExpiracao")))
+            .motivoNegacao(rs.getString("motivoNegacao"))
+            .motivoCancelamento(rs.getString("motivoCancelamento"))
+            .build();
+    }
+    
+    private List<ModuloSimpleResponse> lerModulos(Array ids, Array nomes) throws SQLException {
+        if (ids == null) {
+            return new ArrayList<>();
+        }
+        Object[] valoresIds = (Object[]) ids.getArray();
+        Object[] valoresNomes = (Object[]) nomes.getArray();
+        List<ModuloSimpleResponse> modulos = new ArrayList<>(valoresIds.length);
+        for (int i = 0; i < valoresIds.length; i++) {
+            modulos.add(new ModuloSimpleResponse(((Number) valoresIds[i]).longValue(), (String) valoresNomes[i]));
+        }
+        return modulos;
+    }
+    
+    private LocalDateTime paraLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+    
+    private void escreverCsv(Writer escritor, SolicitacaoResponse solicitacao) throws IOException {
+        escritor.write(String.valueOf(solicitacao.getId()));
+        escritor.write(',');
+        escritor.write(campoCsv(solicitacao.getProtocolo()));
+        escritor.write(',');
+        escritor.write(solicitacao.getStatus().name());
+        escritor.write(',');
+        escritor.write(String.valueOf(solicitacao.getUrgente()));
+        escritor.write(',');
+        escritor.write(String.valueOf(solicitacao.getDataSolicitacao()));
+        escritor.write(',');
+        escritor.write(solicitacao.getDataExpiracao() != null ? solicitacao.getDataExpiracao().toString() : "");
+        escritor.write(',');
+        escritor.write(campoCsv(solicitacao.getModulos().stream()
+            .map(ModuloSimpleResponse::getNome)
+            .collect(Collectors.joining("; "))));
+        escritor.write(',');
+        escritor.write(campoCsv(solicitacao.getJustificativa()));
+        escritor.write(',');
+        escritor.write(campoCsv(solicitacao.getMotivoNegacao()));
+        escritor.write(',');
+        escritor.write(campoCsv(solicitacao.getMotivoCancelamento()));
+        escritor.write('\n');
+    }
+    
+    // RFC 4180: aspas apenas quando o valor contém separador, aspas ou quebra de linha
+    private String campoCsv(String valor) {
+        if (valor == null) {
+            return "";
+        }
+        if (valor.indexOf(',') < 0 && valor.indexOf('"') < 0 && valor.indexOf('\n') < 0 && valor.indexOf('\r') < 0) {
+            return valor;
+        }
+        return '"' + valor.replace("\"", "\"\"") + '"';
+    }
+}
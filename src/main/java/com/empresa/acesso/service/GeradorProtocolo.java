@@ -0,0 +1,96 @@
+package com.empresa.acesso.service;
+
+import com.empresa.acesso.config.DataSourceConfig;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Gera protocolos no formato SOL-yyyyMMdd-NNNN com sufixo reiniciado a cada dia.
+ * Os números vêm de blocos reservados no contador diário do banco (hi/lo): só a primeira
+ * geração de cada bloco acessa o banco, e nós diferentes nunca recebem o mesmo número.
+ *
+ * A reserva usa o pool próprio de protocolo ({@link DataSourceConfig}): é commitada de forma
+ * independente da criação da solicitação e não disputa conexão com a transação que a chamou,
+ * que já segura uma conexão do pool principal.
+ */
+@Service
+public class GeradorProtocolo {
+    
+    private static final DateTimeFormatter FORMATO_DATA = DateTimeFormatter.ofPattern("yyyyMMdd");
+    private static final int TENTATIVAS_RESERVA = 3;
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int tamanhoBloco;
+    private final ReentrantLock lock = new ReentrantLock();
+    
+    private LocalDate dataBloco;
+    private long proximo;
+    private long limite;
+    
+    public GeradorProtocolo(
+            @Qualifier(DataSourceConfig.PROTOCOLO) DataSource dataSource,
+            @Value("${protocolo.tamanho-bloco:50}") int tamanhoBloco) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        this.tamanhoBloco = tamanhoBloco;
+    }
+    
+    public String gerar() {
+        LocalDate hoje = LocalDate.now();
+        long numero;
+        
+        lock.lock();
+        try {
+            if (!hoje.equals(dataBloco) || proximo > limite) {
+                limite = reservarBloco(hoje);
+                proximo = limite - tamanhoBloco + 1;
+                dataBloco = hoje;
+            }
+            numero = proximo++;
+        } finally {
+            lock.unlock();
+        }
+        
+        return String.format("SOL-%s-%04d", hoje.format(FORMATO_DATA), numero);
+    }
+    
+    /**
+     * Reserva o próximo bloco do dia e retorna o último número do bloco. O UPDATE bloqueia a
+     * linha do dia apenas durante esta transação curta.
+     */
+    private long reservarBloco(LocalDate data) {
+        for (int tentativa = 1; ; tentativa++) {
+            try {
+                return transactionTemplate.execute(status -> {
+                    int atualizadas = jdbcTemplate.update(
+                        "UPDATE sequencias_protocolo SET ultimo_valor = ultimo_valor + ? WHERE data = ?",
+                        tamanhoBloco, data);
+                    if (atualizadas == 0) {
+                        jdbcTemplate.update(
+                            "INSERT INTO sequencias_protocolo (data, ultimo_valor) VALUES (?, ?)",
+                            data, tamanhoBloco);
+                    }
+                    return jdbcTemplate.queryForObject(
+                        "SELECT ultimo_valor FROM sequencias_protocolo WHERE data = ?", Long.class, data);
+                });
+            } catch (DuplicateKeyException e) {
+                // Outro nó criou o contador do dia ao mesmo tempo; a próxima tentativa o atualiza
+                if (tentativa == TENTATIVAS_RESERVA) {
+                    throw e;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.empresa.acesso.service;
+
+import com.empresa.acesso.entity.enums.TipoEventoSolicitacao;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * Move os eventos pendentes de eventos_solicitacao para historico_solicitacoes, já com a descrição
+ * legível, em lotes de um único comando SQL. A remoção e a inserção de um lote são atômicas,
+ * então a leitura do detalhe, que une as duas tabelas, vê cada evento uma única vez, na mesma
+ * posição: a linha materializada leva o id do evento, usado para desempatar a ordem. Cada lote
+ * trava seus eventos com FOR UPDATE SKIP LOCKED; nós executando ao mesmo tempo pegam lotes disjuntos.
+ */
+@Service
+public class MaterializacaoHistorico {
+    
+    // Mesmo texto de TipoEventoSolicitacao.descrever, gerado a partir do enum
+    private static final String DESCRICAO = Arrays.stream(TipoEventoSolicitacao.values())
+        .map(tipo -> "WHEN '" + tipo.name() + "' THEN '" + tipo.getTexto().replace("'", "''") + "' ")
+        .collect(Collectors.joining("", "CASE m.tipo ", "END || COALESCE(m.detalhe, '')"));
+    
+    private static final String MATERIALIZAR_LOTE =
+        "WITH pendentes AS (" +
+        "    SELECT id FROM eventos_solicitacao " +
+        "    ORDER BY id " +
+        "    LIMIT ? " +
+        "    FOR UPDATE SKIP LOCKED" +
+        "), movidos AS (" +
+        "    DELETE FROM eventos_solicitacao e " +
+        "    USING pendentes p WHERE e.id = p.id " +
+        "    RETURNING e.id, e.solicitacao_id, e.tipo, e.detalhe, e.data_hora" +
+        ") " +
+        "INSERT INTO historico_solicitacoes (solicitacao_id, descricao, data_hora, evento_id) " +
+        "SELECT m.solicitacao_id, " + DESCRICAO + ", m.data_hora, m.id FROM movidos m ORDER BY m.id";
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean habilitada;
+    private final int tamanhoLote;
+    
+    public MaterializacaoHistorico(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            @Value("${historico.materializacao.habilitada:true}") boolean habilitada,
+            @Value("${historico.materializacao.tamanho-lote:1000}") int tamanhoLote) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.habilitada = habilitada;
+        this.tamanhoLote = tamanhoLote;
+    }
+    
+    @Scheduled(fixedDelayString = "${historico.materializacao.intervalo-ms:1000}")
+    public void executar() {
+        if (habilitada) {
+            materializarPendentes();
+        }
+    }
+    
+    /**
+     * Processa lotes até não sobrar evento pendente livre e retorna quantos foram materializados.
+     */
+    public int materializarPendentes() {
+        int total = 0;
+        int materializados;
+        do {
+            materializados = transactionTemplate.execute(status -> jdbcTemplate.update(MATERIALIZAR_LOTE, tamanhoLote));
+            total += materializados;
+        } while (materializados == tamanhoLote);
+        return total;
+    }
+}
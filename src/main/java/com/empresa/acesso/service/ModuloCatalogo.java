@@ -0,0 +1,43 @@
+package com.empresa.acesso.service;
+
+import com.empresa.acesso.entity.Modulo;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Cópia imutável de um {@link Modulo} e de suas regras, mantida pelo {@link CatalogoSnapshot}.
+ * Os conjuntos são ordenados para que o catálogo serializado seja o mesmo em todos os nós.
+ */
+@Getter
+@Builder
+@AllArgsConstructor
+public class ModuloCatalogo {
+    
+    private final Long id;
+    private final String nome;
+    private final String descricao;
+    private final boolean ativo;
+    private final Set<String> departamentosPermitidos;
+    private final Set<Long> modulosIncompativeis;
+    
+    public static ModuloCatalogo de(Modulo modulo) {
+        return ModuloCatalogo.builder()
+            .id(modulo.getId())
+            .nome(modulo.getNome())
+            .descricao(modulo.getDescricao())
+            .ativo(Boolean.TRUE.equals(modulo.getAtivo()))
+            .departamentosPermitidos(ordenado(modulo.getDepartamentosPermitidos()))
+            .modulosIncompativeis(ordenado(modulo.getModulosIncompativeis()))
+            .build();
+    }
+    
+    private static <T extends Comparable<T>> Set<T> ordenado(Collection<T> valores) {
+        return Collections.unmodifiableSortedSet(new TreeSet<>(valores));
+    }
+}
@@ -1,11 +1,8 @@
 package com.empresa.acesso.service;
 
 import com.empresa.acesso.dto.ModuloResponse;
-import com.empresa.acesso.entity.Modulo;
-import com.empresa.acesso.repository.ModuloRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -14,21 +11,35 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class ModuloService {
     
-    private final ModuloRepository moduloRepository;
+    private final CatalogoModulos catalogoModulos;
     
-    @Transactional(readOnly = true)
-    public List<ModuloResponse> listarModulosDisponiveis() {
-        return moduloRepository.findByAtivoTrue().stream()
+    /**
+     * Catálogo carregado neste nó. O ETag e a lista de uma mesma resposta vêm do mesmo snapshot,
+     * lido uma única vez.
+     */
+    public CatalogoSnapshot catalogo() {
+        return catalogoModulos.snapshot();
+    }
+    
+    /**
+     * ETag forte da lista de módulos, derivado da versão do catálogo.
+     */
+    public String etagCatalogo(CatalogoSnapshot catalogo) {
+        return "\"catalogo-" + catalogo.getVersao() + "\"";
+    }
+    
+    public List<ModuloResponse> listarModulosDisponiveis(CatalogoSnapshot catalogo) {
+        return catalogo.getAtivos().stream()
             .map(this::toResponse)
             .collect(Collectors.toList());
     }
     
-    private ModuloResponse toResponse(Modulo modulo) {
+    private ModuloResponse toResponse(ModuloCatalogo modulo) {
         return ModuloResponse.builder()
             .id(modulo.getId())
             .nome(modulo.getNome())
             .descricao(modulo.getDescricao())
-            .ativo(modulo.getAtivo())
+            .ativo(modulo.isAtivo())
             .departamentosPermitidos(modulo.getDepartamentosPermitidos())
             .modulosIncompativeis(modulo.getModulosIncompativeis())
             .build();
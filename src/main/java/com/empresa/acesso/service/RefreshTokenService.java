@@ -2,6 +2,7 @@ package com.empresa.acesso.service;
 
 import com.empresa.acesso.entity.RefreshToken;
 import com.empresa.acesso.entity.Usuario;
+import com.empresa.acesso.exception.CodigoErro;
 import com.empresa.acesso.exception.UnauthorizedException;
 import com.empresa.acesso.repository.RefreshTokenRepository;
 import com.empresa.acesso.repository.UsuarioRepository;
@@ -17,6 +18,13 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class RefreshTokenService {
     
+    private static final UnauthorizedException USUARIO_NAO_ENCONTRADO =
+        new UnauthorizedException(CodigoErro.USUARIO_NAO_ENCONTRADO, "Usuário não encontrado");
+    private static final UnauthorizedException TOKEN_INVALIDO =
+        new UnauthorizedException(CodigoErro.REFRESH_TOKEN_INVALIDO, "Refresh token inválido");
+    private static final UnauthorizedException TOKEN_EXPIRADO =
+        new UnauthorizedException(CodigoErro.REFRESH_TOKEN_EXPIRADO, "Refresh token expirado");
+    
     private final RefreshTokenRepository refreshTokenRepository;
     private final UsuarioRepository usuarioRepository;
     
@@ -26,7 +34,7 @@ public class RefreshTokenService {
     @Transactional
     public RefreshToken createRefreshToken(Long usuarioId) {
         Usuario usuario = usuarioRepository.findById(usuarioId)
-            .orElseThrow(() -> new UnauthorizedException("Usuário não encontrado"));
+            .orElseThrow(() -> USUARIO_NAO_ENCONTRADO);
         
         refreshTokenRepository.deleteByUsuarioId(usuarioId);
         
@@ -43,10 +51,10 @@ public class RefreshTokenService {
     @Transactional(readOnly = true)
     public RefreshToken verifyRefreshToken(String token) {
         RefreshToken refreshToken = refreshTokenRepository.findByToken(token)
-            .orElseThrow(() -> new UnauthorizedException("Refresh token inválido"));
+            .orElseThrow(() -> TOKEN_INVALIDO);
         
         if (refreshToken.isExpirado()) {
-            throw new UnauthorizedException("Refresh token expirado");
+            throw TOKEN_EXPIRADO;
         }
         
         return refreshToken;
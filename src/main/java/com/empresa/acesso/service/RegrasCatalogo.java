@@ -0,0 +1,178 @@
+package com.empresa.acesso.service;
+
+import java.util.*;
+
+/**
+ * Regras de departamento, incompatibilidade e limite compiladas a partir do catálogo em
+ * estruturas primitivas. Cada módulo ocupa um bit, na posição do seu id no vetor ordenado
+ * {@code ids}; cada departamento tem a máscara densa dos módulos permitidos, e os módulos do
+ * usuário e os solicitados viram mapas de bits esparsos no mesmo espaço de índices.
+ */
+public class RegrasCatalogo {
+    
+    static final String MOTIVO_DEPARTAMENTO = "Departamento sem permissão para acessar este módulo";
+    static final String MOTIVO_INCOMPATIBILIDADE = "Módulo incompatível com outro módulo já ativo em seu perfil";
+    static final String MOTIVO_LIMITE = "Limite de módulos ativos atingido";
+    
+    private static final int[] SEM_INCOMPATIVEIS = new int[0];
+    
+    private final long[] ids;
+    private final Map<String, long[]> permitidosPorDepartamento;
+    // Esparso: uma matriz densa de incompatibilidades teria n² bits
+    private final int[][] incompativeis;
+    
+    private RegrasCatalogo(long[] ids, Map<String, long[]> permitidosPorDepartamento, int[][] incompativeis) {
+        this.ids = ids;
+        this.permitidosPorDepartamento = permitidosPorDepartamento;
+        this.incompativeis = incompativeis;
+    }
+    
+    /**
+     * @param modulos módulos do catálogo ordenados por id
+     */
+    public static RegrasCatalogo compilar(List<ModuloCatalogo> modulos) {
+        long[] ids = new long[modulos.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = modulos.get(i).getId();
+        }
+        
+        int palavras = (ids.length + 63) >>> 6;
+        Map<String, long[]> permitidosPorDepartamento = new HashMap<>();
+        int[][] incompativeis = new int[ids.length][];
+        
+        for (int i = 0; i < ids.length; i++) {
+            ModuloCatalogo modulo = modulos.get(i);
+            for (String departamento : modulo.getDepartamentosPermitidos()) {
+                long[] permitidos = permitidosPorDepartamento.computeIfAbsent(departamento, d -> new long[palavras]);
+                permitidos[i >>> 6] |= 1L << i;
+            }
+            
+            incompativeis[i] = modulo.getModulosIncompativeis().stream()
+                .mapToInt(id -> Arrays.binarySearch(ids, id))
+                .filter(indice -> indice >= 0)
+                .sorted()
+                .toArray();
+            if (incompativeis[i].length == 0) {
+                incompativeis[i] = SEM_INCOMPATIVEIS;
+            }
+        }
+        
+        return new RegrasCatalogo(ids, permitidosPorDepartamento, incompativeis);
+    }
+    
+    /**
+     * Avalia as regras na mesma ordem e com as mesmas mensagens das verificações originais.
+     *
+     * @return motivo da negação, ou null quando a solicitação pode ser aprovada
+     */
+    public String validar(String departamento, Collection<Long> modulosAtivosIds, Collection<Long> solicitadosIds, int limite) {
+        long[] ativosIds = new long[modulosAtivosIds.size()];
+        int i = 0;
+        for (Long id : modulosAtivosIds) {
+            ativosIds[i++] = id;
+        }
+        return validar(departamento, ativosIds, solicitadosIds, limite);
+    }
+    
+    /**
+     * Mesmas regras, com os módulos ativos lidos direto do snapshot de direitos do usuário.
+     */
+    public String validar(DireitosUsuario direitos, Collection<Long> solicitadosIds, int limite) {
+        return validar(direitos.getDepartamento(), direitos.modulosIds(), solicitadosIds, limite);
+    }
+    
+    private String validar(String departamento, long[] modulosAtivosIds, Collection<Long> solicitadosIds, int limite) {
+        int[] indicesAtivos = new int[modulosAtivosIds.length];
+        int quantidadeAtivos = 0;
+        int ativosForaDoCatalogo = 0;
+        for (long id : modulosAtivosIds) {
+            int indice = Arrays.binarySearch(ids, id);
+            if (indice < 0) {
+                ativosForaDoCatalogo++;
+            } else {
+                indicesAtivos[quantidadeAtivos++] = indice;
+            }
+        }
+        MapaBits ativos = MapaBits.de(indicesAtivos, quantidadeAtivos);
+        
+        int[] indicesSolicitados = new int[solicitadosIds.size()];
+        int quantidade = 0;
+        for (Long id : solicitadosIds) {
+            int indice = Arrays.binarySearch(ids, id);
+            if (indice < 0) {
+                throw new IllegalArgumentException("Módulo fora do catálogo: " + id);
+            }
+            indicesSolicitados[quantidade++] = indice;
+        }
+        MapaBits solicitados = MapaBits.de(indicesSolicitados, quantidade);
+        
+        long[] permitidos = permitidosPorDepartamento.get(departamento);
+        for (int i = 0; i < solicitados.tamanho; i++) {
+            long permitidosPalavra = permitidos != null ? permitidos[solicitados.posicoes[i]] : 0L;
+            if ((solicitados.palavras[i] & ~permitidosPalavra) != 0) {
+                return MOTIVO_DEPARTAMENTO;
+            }
+        }
+        
+        for (int i = 0; i < quantidade; i++) {
+            int indice = indicesSolicitados[i];
+            for (int incompativel : incompativeis[indice]) {
+                if (ativos.contem(incompativel) || (incompativel != indice && solicitados.contem(incompativel))) {
+                    return MOTIVO_INCOMPATIBILIDADE;
+                }
+            }
+        }
+        
+        if (ativosForaDoCatalogo + ativos.contar() + solicitados.contar() > limite) {
+            return MOTIVO_LIMITE;
+        }
+        
+        return null;
+    }
+    
+    /**
+     * Mapa de bits esparso no mesmo espaço de índices do catálogo: guarda apenas as palavras
+     * de 64 bits não vazias, ordenadas pela posição. Usuários e solicitações têm poucos módulos,
+     * então o custo não cresce com o tamanho do catálogo.
+     */
+    private static final class MapaBits {
+        
+        private final int[] posicoes;
+        private final long[] palavras;
+        private final int tamanho;
+        
+        private MapaBits(int[] posicoes, long[] palavras, int tamanho) {
+            this.posicoes = posicoes;
+            this.palavras = palavras;
+            this.tamanho = tamanho;
+        }
+        
+        static MapaBits de(int[] indices, int quantidade) {
+            Arrays.sort(indices, 0, quantidade);
+            int[] posicoes = new int[quantidade];
+            long[] palavras = new long[quantidade];
+            int tamanho = 0;
+            for (int i = 0; i < quantidade; i++) {
+                int posicao = indices[i] >>> 6;
+                if (tamanho == 0 || posicoes[tamanho - 1] != posicao) {
+                    posicoes[tamanho++] = posicao;
+                }
+                palavras[tamanho - 1] |= 1L << indices[i];
+            }
+            return new MapaBits(posicoes, palavras, tamanho);
+        }
+        
+        boolean contem(int indice) {
+            int i = Arrays.binarySearch(posicoes, 0, tamanho, indice >>> 6);
+            return i >= 0 && (palavras[i] & (1L << indice)) != 0;
+        }
+        
+        int contar() {
+            int total = 0;
+            for (int i = 0; i < tamanho; i++) {
+                total += Long.bitCount(palavras[i]);
+            }
+            return total;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.empresa.acesso.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Leva a cada nó as alterações de direitos feitas pelos outros, ou direto no banco. Triggers da
+ * migração V12 registram o usuário alterado em alteracoes_direitos junto com o id da transação;
+ * cada leitura pega as linhas de transações a partir do xmin do snapshot da leitura anterior,
+ * ou seja, também as que ainda não tinham terminado, e descarta esses usuários do cache local.
+ * Uma linha pode ser lida mais de uma vez, nunca nenhuma.
+ */
+@Service
+public class SincronizacaoDireitos {
+    
+    private static final String LER_ALTERACOES =
+        "SELECT pg_snapshot_xmin(pg_current_snapshot())::text AS xmin, a.usuario_id " +
+        "FROM (SELECT 1) s " +
+        "LEFT JOIN alteracoes_direitos a ON a.transacao >= CAST(? AS xid8)";
+    
+    private static final String REMOVER_ANTIGAS =
+        "DELETE FROM alteracoes_direitos WHERE registrada_em < now() - ? * INTERVAL '1 second'";
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final DireitosUsuarios direitosUsuarios;
+    private final boolean habilitada;
+    private final Duration retencao;
+    
+    private String xmin;
+    private long ultimaLeitura;
+    
+    public SincronizacaoDireitos(
+            JdbcTemplate jdbcTemplate,
+            DireitosUsuarios direitosUsuarios,
+            @Value("${direitos.sincronizacao.habilitada:true}") boolean habilitada,
+            @Value("${direitos.sincronizacao.retencao:10m}") Duration retencao) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.direitosUsuarios = direitosUsuarios;
+        this.habilitada = habilitada;
+        this.retencao = retencao;
+    }
+    
+    @Scheduled(fixedDelayString = "${direitos.sincronizacao.intervalo-ms:1000}")
+    public void executar() {
+        if (habilitada) {
+            sincronizar();
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${direitos.sincronizacao.intervalo-limpeza-ms:60000}")
+    public void limpar() {
+        if (habilitada) {
+            jdbcTemplate.update(REMOVER_ANTIGAS, retencao.toSeconds());
+        }
+    }
+    
+    /**
+     * Descarta do cache os usuários alterados desde a leitura anterior. Na primeira leitura, ou
+     * depois de um intervalo em que a limpeza pode ter removido linhas ainda não lidas, descarta
+     * o cache inteiro.
+     */
+    public synchronized void sincronizar() {
+        long inicio = System.nanoTime();
+        List<Map<String, Object>> linhas = jdbcTemplate.queryForList(LER_ALTERACOES, xmin);
+        Set<Long> alterados = new HashSet<>();
+        for (Map<String, Object> linha : linhas) {
+            if (linha.get("usuario_id") instanceof Number usuarioId) {
+                alterados.add(usuarioId.longValue());
+            }
+        }
+        
+        if (xmin == null || inicio - ultimaLeitura > retencao.toNanos() / 2) {
+            direitosUsuarios.descartarTodos();
+        } else {
+            direitosUsuarios.descartar(alterados);
+        }
+        xmin = (String) linhas.get(0).get("xmin");
+        ultimaLeitura = inicio;
+    }
+}
@@ -5,10 +5,15 @@ import com.empresa.acesso.entity.Modulo;
 import com.empresa.acesso.entity.Solicitacao;
 import com.empresa.acesso.entity.Usuario;
 import com.empresa.acesso.entity.enums.StatusSolicitacao;
+import com.empresa.acesso.entity.enums.TipoEventoSolicitacao;
 import com.empresa.acesso.exception.BusinessException;
+import com.empresa.acesso.exception.CodigoErro;
 import com.empresa.acesso.exception.ResourceNotFoundException;
+import com.empresa.acesso.repository.LinhaHistorico;
 import com.empresa.acesso.repository.ModuloRepository;
+import com.empresa.acesso.repository.SolicitacaoLoteRepository;
 import com.empresa.acesso.repository.SolicitacaoRepository;
+import com.empresa.acesso.repository.SolicitacaoResumo;
 import com.empresa.acesso.repository.UsuarioRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
@@ -19,10 +24,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Set;
+import java.util.*;
 import java.util.stream.Collectors;
 
 @Service
@@ -32,48 +34,61 @@ public class SolicitacaoService {
     private final SolicitacaoRepository solicitacaoRepository;
     private final UsuarioRepository usuarioRepository;
     private final ModuloRepository moduloRepository;
+    private final GeradorProtocolo geradorProtocolo;
+    private final CatalogoModulos catalogoModulos;
+    private final SolicitacaoLoteRepository solicitacaoLoteRepository;
+    private final DireitosUsuarios direitosUsuarios;
     
     private static final int DIAS_EXPIRACAO = 180;
     private static final int DIAS_RENOVACAO = 30;
     private static final int LIMITE_MODULOS_PADRAO = 5;
     private static final int LIMITE_MODULOS_TI = 10;
+    private static final int TAMANHO_MAXIMO_PAGINA = 100;
+    private static final int TAMANHO_MINIMO_BUSCA = 3;
+    private static final int HISTORICO_RECENTE = 10;
+    
+    private static final ResourceNotFoundException SOLICITACAO_NAO_ENCONTRADA =
+        new ResourceNotFoundException(CodigoErro.SOLICITACAO_NAO_ENCONTRADA, "Solicitação não encontrada");
+    private static final BusinessException MODULOS_NAO_ENCONTRADOS =
+        new BusinessException(CodigoErro.MODULO_NAO_ENCONTRADO, "Um ou mais módulos não foram encontrados");
     
     @Transactional
-    public CriarSolicitacaoResponse criarSolicitacao(CriarSolicitacaoRequest request, String emailUsuario) {
-        Usuario usuario = usuarioRepository.findByEmail(emailUsuario)
-            .orElseThrow(() -> new ResourceNotFoundException("Usuário não encontrado"));
-        
-        Set<Modulo> modulos = new HashSet<>(moduloRepository.findAllById(request.getModuloIds()));
+    public CriarSolicitacaoResponse criarSolicitacao(CriarSolicitacaoRequest request, Long usuarioId) {
+        DireitosUsuario direitos = direitosUsuarios.buscarParaAlteracao(usuarioId);
         
-        if (modulos.size() != request.getModuloIds().size()) {
-            throw new BusinessException("Um ou mais módulos não foram encontrados");
-        }
+        CatalogoSnapshot catalogo = catalogoModulos.snapshot();
+        List<ModuloCatalogo> modulos = buscarModulos(catalogo, request.getModuloIds());
         
         validarModulosAtivos(modulos);
-        validarSolicitacoesAtivas(usuario.getId(), modulos);
-        validarAcessosExistentes(usuario, modulos);
+        validarSolicitacoesAtivas(
+            solicitacaoRepository.findModuloIdsComSolicitacaoAtiva(usuarioId, request.getModuloIds()), modulos);
+        validarAcessosExistentes(direitos, modulos);
         
-        String protocolo = gerarProtocolo();
+        Set<Modulo> referencias = modulos.stream()
+            .map(modulo -> moduloRepository.getReferenceById(modulo.getId()))
+            .collect(Collectors.toSet());
+        
+        String protocolo = geradorProtocolo.gerar();
         
         Solicitacao solicitacao = Solicitacao.builder()
             .protocolo(protocolo)
-            .usuario(usuario)
-            .modulos(modulos)
+            .usuario(usuarioRepository.getReferenceById(usuarioId))
+            .modulos(referencias)
             .justificativa(request.getJustificativa())
             .urgente(request.getUrgente())
             .dataSolicitacao(LocalDateTime.now())
             .build();
         
-        String motivoNegacao = validarRegrasNegocio(usuario, modulos);
+        String motivoNegacao = validarRegrasNegocio(catalogo.getRegras(), direitos, request.getModuloIds());
         
         if (motivoNegacao != null) {
             solicitacao.setStatus(StatusSolicitacao.NEGADO);
             solicitacao.setMotivoNegacao(motivoNegacao);
-            solicitacao.adicionarHistorico("Solicitação negada: " + motivoNegacao);
+            solicitacao.registrarEvento(TipoEventoSolicitacao.NEGADA, motivoNegacao);
             solicitacaoRepository.save(solicitacao);
             
             return CriarSolicitacaoResponse.builder()
-                .mensagem("Solicitação negada. Motivo: " + motivoNegacao)
+                .mensagem(mensagemNegada(motivoNegacao))
                 .protocolo(protocolo)
                 .solicitacaoId(solicitacao.getId())
                 .build();
@@ -81,118 +96,155 @@ public class SolicitacaoService {
         
         solicitacao.setStatus(StatusSolicitacao.ATIVO);
         solicitacao.setDataExpiracao(LocalDateTime.now().plusDays(DIAS_EXPIRACAO));
-        solicitacao.adicionarHistorico("Solicitação aprovada automaticamente");
+        solicitacao.registrarEvento(TipoEventoSolicitacao.APROVADA, null);
         
-        usuario.getModulosAtivos().addAll(modulos);
-        usuarioRepository.save(usuario);
+        direitosUsuarios.conceder(usuarioId, request.getModuloIds());
         solicitacaoRepository.save(solicitacao);
         
         return CriarSolicitacaoResponse.builder()
-            .mensagem("Solicitação criada com sucesso! Protocolo: " + protocolo + ". Seus acessos já estão disponíveis!")
+            .mensagem(mensagemAprovada(protocolo))
             .protocolo(protocolo)
             .solicitacaoId(solicitacao.getId())
             .build();
     }
     
-    private void validarModulosAtivos(Set<Modulo> modulos) {
-        for (Modulo modulo : modulos) {
-            if (!modulo.getAtivo()) {
-                throw new BusinessException("Módulo '" + modulo.getNome() + "' não está ativo");
+    /**
+     * Cria várias solicitações do usuário validadas contra um único carregamento do usuário, do
+     * catálogo e das solicitações ativas. Os itens são avaliados em ordem: um item aprovado conta
+     * para os limites e conflitos dos seguintes, como se fossem enviados um a um.
+     */
+    @Transactional
+    public List<ResultadoSolicitacaoLoteResponse> criarSolicitacoesEmLote(List<CriarSolicitacaoRequest> requests, Long usuarioId) {
+        DireitosUsuario direitos = direitosUsuarios.buscarParaAlteracao(usuarioId);
+        Usuario usuario = usuarioRepository.getReferenceById(usuarioId);
+        
+        CatalogoSnapshot catalogo = catalogoModulos.snapshot();
+        Set<Long> todosSolicitados = requests.stream()
+            .flatMap(request -> request.getModuloIds().stream())
+            .collect(Collectors.toSet());
+        Set<Long> comSolicitacaoAtiva = new HashSet<>(
+            solicitacaoRepository.findModuloIdsComSolicitacaoAtiva(usuarioId, todosSolicitados));
+        
+        Solicitacao[] criadas = new Solicitacao[requests.size()];
+        String[] rejeicoes = new String[requests.size()];
+        Set<Long> concedidos = new HashSet<>();
+        LocalDateTime agora = LocalDateTime.now();
+        
+        for (int i = 0; i < requests.size(); i++) {
+            CriarSolicitacaoRequest request = requests.get(i);
+            try {
+                List<ModuloCatalogo> modulos = buscarModulos(catalogo, request.getModuloIds());
+                validarModulosAtivos(modulos);
+                validarSolicitacoesAtivas(comSolicitacaoAtiva, modulos);
+                validarAcessosExistentes(direitos, modulos);
+            } catch (BusinessException e) {
+                rejeicoes[i] = e.getMessage();
+                continue;
             }
+            
+            Solicitacao solicitacao = Solicitacao.builder()
+                .protocolo(geradorProtocolo.gerar())
+                .usuario(usuario)
+                .modulos(request.getModuloIds().stream()
+                    .map(moduloId -> Modulo.builder().id(moduloId).build())
+                    .collect(Collectors.toSet()))
+                .justificativa(request.getJustificativa())
+                .urgente(request.getUrgente())
+                .dataSolicitacao(agora)
+                .build();
+            
+            String motivoNegacao = validarRegrasNegocio(catalogo.getRegras(), direitos, request.getModuloIds());
+            if (motivoNegacao != null) {
+                solicitacao.setStatus(StatusSolicitacao.NEGADO);
+                solicitacao.setMotivoNegacao(motivoNegacao);
+                solicitacao.registrarEvento(TipoEventoSolicitacao.NEGADA, motivoNegacao);
+            } else {
+                solicitacao.setStatus(StatusSolicitacao.ATIVO);
+                solicitacao.setDataExpiracao(agora.plusDays(DIAS_EXPIRACAO));
+                solicitacao.registrarEvento(TipoEventoSolicitacao.APROVADA, null);
+                direitos = direitos.comConcedidos(request.getModuloIds());
+                comSolicitacaoAtiva.addAll(request.getModuloIds());
+                concedidos.addAll(request.getModuloIds());
+            }
+            criadas[i] = solicitacao;
         }
-    }
-    
-    private void validarSolicitacoesAtivas(Long usuarioId, Set<Modulo> modulos) {
-        for (Modulo modulo : modulos) {
-            if (solicitacaoRepository.existsSolicitacaoAtivaParaModulo(usuarioId, modulo.getId())) {
-                throw new BusinessException("Já existe solicitação ativa para o módulo: " + modulo.getNome());
+        
+        solicitacaoLoteRepository.inserir(Arrays.stream(criadas).filter(Objects::nonNull).toList());
+        direitosUsuarios.conceder(usuarioId, concedidos);
+        
+        List<ResultadoSolicitacaoLoteResponse> resultados = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            Solicitacao solicitacao = criadas[i];
+            if (solicitacao == null) {
+                resultados.add(ResultadoSolicitacaoLoteResponse.builder()
+                    .indice(i)
+                    .mensagem(rejeicoes[i])
+                    .build());
+                continue;
             }
+            resultados.add(ResultadoSolicitacaoLoteResponse.builder()
+                .indice(i)
+                .status(solicitacao.getStatus())
+                .mensagem(solicitacao.getStatus() == StatusSolicitacao.ATIVO
+                    ? mensagemAprovada(solicitacao.getProtocolo())
+                    : mensagemNegada(solicitacao.getMotivoNegacao()))
+                .protocolo(solicitacao.getProtocolo())
+                .solicitacaoId(solicitacao.getId())
+                .build());
         }
+        return resultados;
     }
     
-    private void validarAcessosExistentes(Usuario usuario, Set<Modulo> modulos) {
-        for (Modulo modulo : modulos) {
-            if (usuario.getModulosAtivos().contains(modulo)) {
-                throw new BusinessException("Usuário já possui acesso ativo ao módulo: " + modulo.getNome());
-            }
+    private List<ModuloCatalogo> buscarModulos(CatalogoSnapshot catalogo, Set<Long> moduloIds) {
+        List<ModuloCatalogo> modulos = catalogo.buscarTodos(moduloIds);
+        if (modulos.size() != moduloIds.size()) {
+            throw MODULOS_NAO_ENCONTRADOS;
         }
+        return modulos;
     }
     
-    private String validarRegrasNegocio(Usuario usuario, Set<Modulo> modulos) {
-        String motivoCompatibilidade = validarCompatibilidadeDepartamento(usuario, modulos);
-        if (motivoCompatibilidade != null) {
-            return motivoCompatibilidade;
-        }
-        
-        String motivoIncompatibilidade = validarModulosIncompativeis(usuario, modulos);
-        if (motivoIncompatibilidade != null) {
-            return motivoIncompatibilidade;
-        }
-        
-        String motivoLimite = validarLimiteModulos(usuario, modulos);
-        if (motivoLimite != null) {
-            return motivoLimite;
-        }
-        
-        return null;
+    private String mensagemAprovada(String protocolo) {
+        return "Solicitação criada com sucesso! Protocolo: " + protocolo + ". Seus acessos já estão disponíveis!";
     }
     
-    private String validarCompatibilidadeDepartamento(Usuario usuario, Set<Modulo> modulos) {
-        String departamento = usuario.getDepartamento();
-        
-        for (Modulo modulo : modulos) {
-            if (!modulo.getDepartamentosPermitidos().contains(departamento)) {
-                return "Departamento sem permissão para acessar este módulo";
-            }
-        }
-        
-        return null;
+    private String mensagemNegada(String motivoNegacao) {
+        return "Solicitação negada. Motivo: " + motivoNegacao;
     }
     
-    private String validarModulosIncompativeis(Usuario usuario, Set<Modulo> modulos) {
-        Set<Long> modulosAtivosIds = usuario.getModulosAtivos().stream()
-            .map(Modulo::getId)
-            .collect(Collectors.toSet());
-        
-        for (Modulo modulo : modulos) {
-            for (Long incompativelId : modulo.getModulosIncompativeis()) {
-                if (modulosAtivosIds.contains(incompativelId)) {
-                    return "Módulo incompatível com outro módulo já ativo em seu perfil";
-                }
+    private void validarModulosAtivos(List<ModuloCatalogo> modulos) {
+        for (ModuloCatalogo modulo : modulos) {
+            if (!modulo.isAtivo()) {
+                throw new BusinessException(CodigoErro.MODULO_INATIVO, "Módulo '" + modulo.getNome() + "' não está ativo");
             }
         }
-        
-        for (Modulo modulo1 : modulos) {
-            for (Modulo modulo2 : modulos) {
-                if (!modulo1.equals(modulo2) && modulo1.getModulosIncompativeis().contains(modulo2.getId())) {
-                    return "Módulo incompatível com outro módulo já ativo em seu perfil";
-                }
+    }
+    
+    private void validarSolicitacoesAtivas(Set<Long> comSolicitacaoAtiva, List<ModuloCatalogo> modulos) {
+        for (ModuloCatalogo modulo : modulos) {
+            if (comSolicitacaoAtiva.contains(modulo.getId())) {
+                throw new BusinessException(CodigoErro.SOLICITACAO_ATIVA_EXISTENTE,
+                    "Já existe solicitação ativa para o módulo: " + modulo.getNome());
             }
         }
-        
-        return null;
     }
     
-    private String validarLimiteModulos(Usuario usuario, Set<Modulo> modulos) {
-        long modulosAtivosCount = usuario.getModulosAtivos().size();
-        int limite = "TI".equals(usuario.getDepartamento()) ? LIMITE_MODULOS_TI : LIMITE_MODULOS_PADRAO;
-        
-        if (modulosAtivosCount + modulos.size() > limite) {
-            return "Limite de módulos ativos atingido";
+    private void validarAcessosExistentes(DireitosUsuario direitos, List<ModuloCatalogo> modulos) {
+        for (ModuloCatalogo modulo : modulos) {
+            if (direitos.possui(modulo.getId())) {
+                throw new BusinessException(CodigoErro.ACESSO_JA_ATIVO,
+                    "Usuário já possui acesso ativo ao módulo: " + modulo.getNome());
+            }
         }
-        
-        return null;
     }
     
-    private String gerarProtocolo() {
-        String data = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd"));
-        long count = solicitacaoRepository.count() + 1;
-        return String.format("SOL-%s-%04d", data, count);
+    private String validarRegrasNegocio(RegrasCatalogo regras, DireitosUsuario direitos, Set<Long> moduloIds) {
+        int limite = "TI".equals(direitos.getDepartamento()) ? LIMITE_MODULOS_TI : LIMITE_MODULOS_PADRAO;
+        return regras.validar(direitos, moduloIds, limite);
     }
     
     @Transactional(readOnly = true)
     public Page<SolicitacaoResponse> listarSolicitacoes(
-            String emailUsuario,
+            Long usuarioId,
             String texto,
             StatusSolicitacao status,
             Boolean urgente,
@@ -201,40 +253,137 @@ public class SolicitacaoService {
             int page,
             int size) {
         
-        Usuario usuario = usuarioRepository.findByEmail(emailUsuario)
-            .orElseThrow(() -> new ResourceNotFoundException("Usuário não encontrado"));
-        
         Pageable pageable = PageRequest.of(page, size);
         
         String statusStr = status != null ? status.name() : null;
         String dataInicioStr = dataInicio != null ? dataInicio.toString() : null;
         String dataFimStr = dataFim != null ? dataFim.toString() : null;
         
-        Page<Solicitacao> solicitacoes = solicitacaoRepository.findByUsuarioIdWithFilters(
-            usuario.getId(), texto, statusStr, urgente, dataInicioStr, dataFimStr, pageable
+        Page<SolicitacaoResumo> solicitacoes = solicitacaoRepository.findByUsuarioIdWithFilters(
+            usuarioId, texto, statusStr, urgente, dataInicioStr, dataFimStr, pageable
         );
         
         return solicitacoes.map(this::toResponse);
     }
     
     @Transactional(readOnly = true)
-    public SolicitacaoDetalheResponse buscarDetalhes(Long id, String emailUsuario) {
-        Usuario usuario = usuarioRepository.findByEmail(emailUsuario)
-            .orElseThrow(() -> new ResourceNotFoundException("Usuário não encontrado"));
+    public PaginaCursorResponse<SolicitacaoResponse> listarSolicitacoesPorCursor(
+            Long usuarioId,
+            String texto,
+            StatusSolicitacao status,
+            Boolean urgente,
+            LocalDateTime dataInicio,
+            LocalDateTime dataFim,
+            String cursor,
+            int size) {
+        
+        if (size < 1 || size > TAMANHO_MAXIMO_PAGINA) {
+            throw new BusinessException("Tamanho da página deve estar entre 1 e " + TAMANHO_MAXIMO_PAGINA);
+        }
+        
+        String statusStr = status != null ? status.name() : null;
+        String dataInicioStr = dataInicio != null ? dataInicio.toString() : null;
+        String dataFimStr = dataFim != null ? dataFim.toString() : null;
+        
+        // Uma linha a mais indica se existe próxima página
+        List<SolicitacaoResumo> solicitacoes;
+        if (cursor == null || cursor.isBlank()) {
+            solicitacoes = solicitacaoRepository.findPrimeiraPaginaPorCursor(
+                usuarioId, texto, statusStr, urgente, dataInicioStr, dataFimStr, size + 1
+            );
+        } else {
+            CursorSolicitacao posicao = CursorSolicitacao.decodificar(cursor);
+            solicitacoes = solicitacaoRepository.findProximaPaginaPorCursor(
+                usuarioId, texto, statusStr, urgente, dataInicioStr, dataFimStr,
+                posicao.getDataSolicitacao(), posicao.getId(), size + 1
+            );
+        }
+        
+        boolean possuiProxima = solicitacoes.size() > size;
+        List<SolicitacaoResumo> pagina = possuiProxima ? solicitacoes.subList(0, size) : solicitacoes;
+        
+        return PaginaCursorResponse.<SolicitacaoResponse>builder()
+            .conteudo(pagina.stream().map(this::toResponse).collect(Collectors.toList()))
+            .tamanho(pagina.size())
+            .proximoCursor(possuiProxima ? CursorSolicitacao.de(pagina.get(pagina.size() - 1)).codificar() : null)
+            .possuiProxima(possuiProxima)
+            .build();
+    }
+    
+    @Transactional(readOnly = true)
+    public List<SolicitacaoResponse> buscarSolicitacoes(Long usuarioId, String termo, int size) {
+        String termoNormalizado = termo != null ? termo.trim() : "";
         
-        Solicitacao solicitacao = solicitacaoRepository.findByIdAndUsuarioId(id, usuario.getId())
-            .orElseThrow(() -> new ResourceNotFoundException("Solicitação não encontrada"));
+        // Trigramas precisam de pelo menos 3 caracteres para restringir a busca pelo índice
+        if (termoNormalizado.length() < TAMANHO_MINIMO_BUSCA) {
+            throw new BusinessException("O termo de busca deve ter pelo menos " + TAMANHO_MINIMO_BUSCA + " caracteres");
+        }
+        if (size < 1 || size > TAMANHO_MAXIMO_PAGINA) {
+            throw new BusinessException("Tamanho da página deve estar entre 1 e " + TAMANHO_MAXIMO_PAGINA);
+        }
+        
+        String padrao = "%" + termoNormalizado
+            .replace("\\", "\\\\")
+            .replace("%", "\\%")
+            .replace("_", "\\_") + "%";
         
-        return toDetalheResponse(solicitacao);
+        return solicitacaoRepository.buscarPorRelevancia(usuarioId, termoNormalizado, padrao, size).stream()
+            .map(this::toResponse)
+            .collect(Collectors.toList());
+    }
+    
+    /**
+     * ETag forte do detalhe, sem carregar a solicitação: muda com a versão da solicitação e com a
+     * do catálogo, de onde vêm os nomes dos módulos.
+     */
+    @Transactional(readOnly = true)
+    public String etagDetalhes(Long id, Long usuarioId) {
+        Long versao = solicitacaoRepository.findVersaoByIdAndUsuarioId(id, usuarioId)
+            .orElseThrow(() -> SOLICITACAO_NAO_ENCONTRADA);
+        return "\"solicitacao-" + id + "-" + versao + "-" + catalogoModulos.snapshot().getVersao() + "\"";
+    }
+    
+    @Transactional(readOnly = true)
+    public SolicitacaoDetalheResponse buscarDetalhes(Long id, Long usuarioId) {
+        SolicitacaoResumo solicitacao = solicitacaoRepository.findResumoByIdAndUsuarioId(id, usuarioId)
+            .orElseThrow(() -> SOLICITACAO_NAO_ENCONTRADA);
+        
+        // Um evento a mais indica que há histórico anterior aos exibidos
+        List<LinhaHistorico> recentes = solicitacaoRepository.findHistoricoRecente(id, HISTORICO_RECENTE + 1);
+        boolean historicoCompleto = recentes.size() <= HISTORICO_RECENTE;
+        List<LinhaHistorico> historico = new ArrayList<>(
+            historicoCompleto ? recentes : recentes.subList(0, HISTORICO_RECENTE));
+        Collections.reverse(historico);
+        
+        return toDetalheResponse(solicitacao, historico, historicoCompleto);
+    }
+    
+    /**
+     * Histórico completo da solicitação, do evento mais recente ao mais antigo.
+     */
+    @Transactional(readOnly = true)
+    public Page<HistoricoResponse> listarHistorico(Long id, Long usuarioId, int page, int size) {
+        if (page < 0) {
+            throw new BusinessException("Página deve ser maior ou igual a 0");
+        }
+        if (size < 1 || size > TAMANHO_MAXIMO_PAGINA) {
+            throw new BusinessException("Tamanho da página deve estar entre 1 e " + TAMANHO_MAXIMO_PAGINA);
+        }
+        if (!solicitacaoRepository.existsByIdAndUsuarioId(id, usuarioId)) {
+            throw SOLICITACAO_NAO_ENCONTRADA;
+        }
+        
+        return solicitacaoRepository.findHistoricoBySolicitacaoId(id, PageRequest.of(page, size))
+            .map(this::toHistoricoResponse);
     }
     
     @Transactional
-    public void cancelarSolicitacao(Long id, CancelarSolicitacaoRequest request, String emailUsuario) {
-        Usuario usuario = usuarioRepository.findByEmail(emailUsuario)
-            .orElseThrow(() -> new ResourceNotFoundException("Usuário não encontrado"));
+    public void cancelarSolicitacao(Long id, CancelarSolicitacaoRequest request, Long usuarioId) {
+        // Só confirma que o usuário existe; em geral servido do cache
+        direitosUsuarios.buscar(usuarioId);
         
-        Solicitacao solicitacao = solicitacaoRepository.findByIdAndUsuarioId(id, usuario.getId())
-            .orElseThrow(() -> new ResourceNotFoundException("Solicitação não encontrada"));
+        Solicitacao solicitacao = solicitacaoRepository.findByIdAndUsuarioId(id, usuarioId)
+            .orElseThrow(() -> SOLICITACAO_NAO_ENCONTRADA);
         
         if (solicitacao.getStatus() != StatusSolicitacao.ATIVO) {
             throw new BusinessException("Apenas solicitações ativas podem ser canceladas");
@@ -242,21 +391,19 @@ public class SolicitacaoService {
         
         solicitacao.setStatus(StatusSolicitacao.CANCELADO);
         solicitacao.setMotivoCancelamento(request.getMotivo());
-        solicitacao.adicionarHistorico("Solicitação cancelada: " + request.getMotivo());
-        
-        usuario.getModulosAtivos().removeAll(solicitacao.getModulos());
+        solicitacao.registrarEvento(TipoEventoSolicitacao.CANCELADA, request.getMotivo());
         
-        usuarioRepository.save(usuario);
+        direitosUsuarios.revogar(usuarioId, idsDosModulos(solicitacao));
         solicitacaoRepository.save(solicitacao);
     }
     
     @Transactional
-    public CriarSolicitacaoResponse renovarAcesso(Long id, String emailUsuario) {
-        Usuario usuario = usuarioRepository.findByEmail(emailUsuario)
-            .orElseThrow(() -> new ResourceNotFoundException("Usuário não encontrado"));
+    public CriarSolicitacaoResponse renovarAcesso(Long id, Long usuarioId) {
+        // Trava o usuário antes de revogar, na mesma ordem da criação que vem em seguida
+        direitosUsuarios.buscarParaAlteracao(usuarioId);
         
-        Solicitacao solicitacaoOrigem = solicitacaoRepository.findByIdAndUsuarioId(id, usuario.getId())
-            .orElseThrow(() -> new ResourceNotFoundException("Solicitação não encontrada"));
+        Solicitacao solicitacaoOrigem = solicitacaoRepository.findByIdAndUsuarioId(id, usuarioId)
+            .orElseThrow(() -> SOLICITACAO_NAO_ENCONTRADA);
         
         if (solicitacaoOrigem.getStatus() != StatusSolicitacao.ATIVO) {
             throw new BusinessException("Apenas solicitações ativas podem ser renovadas");
@@ -271,16 +418,16 @@ public class SolicitacaoService {
             throw new BusinessException("Renovação disponível apenas 30 dias antes da expiração");
         }
         
-        usuario.getModulosAtivos().removeAll(solicitacaoOrigem.getModulos());
-        usuarioRepository.save(usuario);
+        Set<Long> moduloIds = idsDosModulos(solicitacaoOrigem);
+        direitosUsuarios.revogar(usuarioId, moduloIds);
         
         CriarSolicitacaoRequest request = CriarSolicitacaoRequest.builder()
-            .moduloIds(solicitacaoOrigem.getModulos().stream().map(Modulo::getId).collect(Collectors.toSet()))
+            .moduloIds(moduloIds)
             .justificativa(solicitacaoOrigem.getJustificativa())
             .urgente(false)
             .build();
         
-        CriarSolicitacaoResponse response = criarSolicitacao(request, emailUsuario);
+        CriarSolicitacaoResponse response = criarSolicitacao(request, usuarioId);
         
         Solicitacao novaSolicitacao = solicitacaoRepository.findById(response.getSolicitacaoId())
             .orElseThrow(() -> new ResourceNotFoundException("Nova solicitação não encontrada"));
@@ -290,16 +437,15 @@ public class SolicitacaoService {
         return response;
     }
     
-    private SolicitacaoResponse toResponse(Solicitacao solicitacao) {
+    private Set<Long> idsDosModulos(Solicitacao solicitacao) {
+        return solicitacao.getModulos().stream().map(Modulo::getId).collect(Collectors.toSet());
+    }
+    
+    private SolicitacaoResponse toResponse(SolicitacaoResumo solicitacao) {
         return SolicitacaoResponse.builder()
             .id(solicitacao.getId())
             .protocolo(solicitacao.getProtocolo())
-            .modulos(solicitacao.getModulos().stream()
-                .map(m -> ModuloSimpleResponse.builder()
-                    .id(m.getId())
-                    .nome(m.getNome())
-                    .build())
-                .collect(Collectors.toList()))
+            .modulos(toModulos(solicitacao))
             .status(solicitacao.getStatus())
             .justificativa(solicitacao.getJustificativa())
             .urgente(solicitacao.getUrgente())
@@ -310,16 +456,12 @@ public class SolicitacaoService {
             .build();
     }
     
-    private SolicitacaoDetalheResponse toDetalheResponse(Solicitacao solicitacao) {
+    private SolicitacaoDetalheResponse toDetalheResponse(
+            SolicitacaoResumo solicitacao, List<LinhaHistorico> historico, boolean historicoCompleto) {
         return SolicitacaoDetalheResponse.builder()
             .id(solicitacao.getId())
             .protocolo(solicitacao.getProtocolo())
-            .modulos(solicitacao.getModulos().stream()
-                .map(m -> ModuloSimpleResponse.builder()
-                    .id(m.getId())
-                    .nome(m.getNome())
-                    .build())
-                .collect(Collectors.toList()))
+            .modulos(toModulos(solicitacao))
             .status(solicitacao.getStatus())
             .justificativa(solicitacao.getJustificativa())
             .urgente(solicitacao.getUrgente())
@@ -327,12 +469,33 @@ public class SolicitacaoService {
             .dataExpiracao(solicitacao.getDataExpiracao())
             .motivoNegacao(solicitacao.getMotivoNegacao())
             .motivoCancelamento(solicitacao.getMotivoCancelamento())
-            .historico(solicitacao.getHistorico().stream()
-                .map(h -> HistoricoResponse.builder()
-                    .descricao(h.getDescricao())
-                    .dataHora(h.getDataHora())
-                    .build())
-                .collect(Collectors.toList()))
+            .historico(historico.stream().map(this::toHistoricoResponse).collect(Collectors.toList()))
+            .historicoCompleto(historicoCompleto)
             .build();
     }
+    
+    // Eventos ainda não materializados ganham a descrição aqui, igual à da materialização
+    private HistoricoResponse toHistoricoResponse(LinhaHistorico linha) {
+        String descricao = linha.getDescricao() != null
+            ? linha.getDescricao()
+            : linha.getTipo().descrever(linha.getDetalhe());
+        return new HistoricoResponse(descricao, linha.getDataHora());
+    }
+    
+    // Sem módulos o ARRAY_AGG devolve NULL
+    private List<ModuloSimpleResponse> toModulos(SolicitacaoResumo solicitacao) {
+        Long[] ids = solicitacao.getModuloIds();
+        if (ids == null) {
+            return new ArrayList<>();
+        }
+        String[] nomes = solicitacao.getModuloNomes();
+        List<ModuloSimpleResponse> modulos = new ArrayList<>(ids.length);
+        for (int i = 0; i < ids.length; i++) {
+            modulos.add(ModuloSimpleResponse.builder()
+                .id(ids[i])
+                .nome(nomes[i])
+                .build());
+        }
+        return modulos;
+    }
 }
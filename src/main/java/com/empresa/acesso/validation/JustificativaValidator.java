@@ -2,32 +2,40 @@ package com.empresa.acesso.validation;
 
 import jakarta.validation.ConstraintValidator;
 import jakarta.validation.ConstraintValidatorContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 
-import java.util.Arrays;
 import java.util.List;
 
+/**
+ * A lista de textos genéricos vem de {@code justificativa.textos-genericos}; sem a propriedade,
+ * vale a lista padrão. Instanciado pelo Spring, que injeta a configuração.
+ */
 public class JustificativaValidator implements ConstraintValidator<JustificativaValida, String> {
     
-    private static final List<String> TEXTOS_GENERICOS = Arrays.asList(
+    static final List<String> TEXTOS_GENERICOS_PADRAO = List.of(
         "teste", "aaa", "preciso", "test", "aaaa", "aaaaa",
         "bbb", "ccc", "xxx", "zzz", "asdf", "qwerty"
     );
     
+    private final TextosGenericos textosGenericos;
+    
+    public JustificativaValidator() {
+        this(List.of());
+    }
+    
+    @Autowired
+    public JustificativaValidator(@Value("${justificativa.textos-genericos:}") List<String> textosGenericos) {
+        this.textosGenericos = TextosGenericos.compilar(
+            textosGenericos.isEmpty() ? TEXTOS_GENERICOS_PADRAO : textosGenericos);
+    }
+    
     @Override
     public boolean isValid(String justificativa, ConstraintValidatorContext context) {
         if (justificativa == null || justificativa.trim().isEmpty()) {
             return false;
         }
         
-        String justificativaLower = justificativa.toLowerCase().trim();
-        
-        for (String textoGenerico : TEXTOS_GENERICOS) {
-            if (justificativaLower.equals(textoGenerico) || 
-                justificativaLower.matches("^" + textoGenerico + "+$")) {
-                return false;
-            }
-        }
-        
-        return true;
+        return !textosGenericos.corresponde(justificativa);
     }
 }
@@ -0,0 +1,90 @@
+package com.empresa.acesso.validation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Lista de textos genéricos compilada uma única vez. Cada texto equivale à expressão
+ * {@code ^texto+$} usada antes: o texto sem a última letra seguido de uma ou mais repetições
+ * dela, sem diferenciar maiúsculas. As regras ficam agrupadas pela letra repetida; a verificação
+ * percorre o fim da justificativa uma vez e compara só os prefixos das regras daquela letra.
+ */
+final class TextosGenericos {
+    
+    private final char[] letras;
+    private final String[][] prefixosPorLetra;
+    
+    private TextosGenericos(char[] letras, String[][] prefixosPorLetra) {
+        this.letras = letras;
+        this.prefixosPorLetra = prefixosPorLetra;
+    }
+    
+    /**
+     * Os textos são literais; textos em branco são ignorados.
+     */
+    static TextosGenericos compilar(List<String> textos) {
+        Map<Character, List<String>> porLetra = new TreeMap<>();
+        for (String texto : textos) {
+            String normalizado = texto.trim().toLowerCase(Locale.ROOT);
+            if (normalizado.isEmpty()) {
+                continue;
+            }
+            char letra = normalizado.charAt(normalizado.length() - 1);
+            porLetra.computeIfAbsent(letra, l -> new ArrayList<>())
+                .add(normalizado.substring(0, normalizado.length() - 1));
+        }
+        
+        char[] letras = new char[porLetra.size()];
+        String[][] prefixosPorLetra = new String[porLetra.size()][];
+        int i = 0;
+        for (Map.Entry<Character, List<String>> entrada : porLetra.entrySet()) {
+            letras[i] = entrada.getKey();
+            prefixosPorLetra[i++] = entrada.getValue().stream().distinct().toArray(String[]::new);
+        }
+        return new TextosGenericos(letras, prefixosPorLetra);
+    }
+    
+    /**
+     * Compara a justificativa sem os espaços das pontas, como o {@link String#trim()}, sem
+     * criar cópias dela.
+     */
+    boolean corresponde(String justificativa) {
+        int inicio = 0;
+        int fim = justificativa.length();
+        while (inicio < fim && justificativa.charAt(inicio) <= ' ') {
+            inicio++;
+        }
+        while (fim > inicio && justificativa.charAt(fim - 1) <= ' ') {
+            fim--;
+        }
+        if (inicio == fim) {
+            return false;
+        }
+        
+        char letra = Character.toLowerCase(justificativa.charAt(fim - 1));
+        int indice = Arrays.binarySearch(letras, letra);
+        if (indice < 0) {
+            return false;
+        }
+        
+        // Início da sequência final de repetições da letra
+        int repeticao = fim - 1;
+        while (repeticao > inicio && Character.toLowerCase(justificativa.charAt(repeticao - 1)) == letra) {
+            repeticao--;
+        }
+        
+        for (String prefixo : prefixosPorLetra[indice]) {
+            int tamanho = prefixo.length();
+            if (inicio + tamanho < fim
+                && repeticao - inicio <= tamanho
+                && justificativa.regionMatches(true, inicio, prefixo, 0, tamanho)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
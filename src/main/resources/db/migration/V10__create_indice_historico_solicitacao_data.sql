@@ -0,0 +1,6 @@
+-- Histórico paginado e eventos recentes do detalhe: lidos do mais recente ao mais antigo, na
+-- ordem do índice. Substitui o índice só por solicitacao_id, que passa a ser um prefixo deste.
+CREATE INDEX idx_historico_solicitacao_data
+    ON historico_solicitacoes (solicitacao_id, data_hora DESC, id DESC);
+
+DROP INDEX idx_historico_solicitacao;
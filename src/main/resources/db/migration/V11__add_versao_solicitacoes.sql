@@ -0,0 +1,3 @@
+-- Versão otimista da solicitação (@Version), base do ETag do detalhe. Alterações feitas direto
+-- em SQL, como a expiração, também incrementam a coluna.
+ALTER TABLE solicitacoes ADD COLUMN versao BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,50 @@
+-- Usuários com direitos alterados, lidos periodicamente por cada nó para descartar seu cache
+-- local. O id da transação permite ler também as alterações de transações que ainda estavam
+-- abertas na leitura anterior; as linhas são removidas depois do período de retenção.
+CREATE TABLE alteracoes_direitos (
+    usuario_id BIGINT NOT NULL,
+    transacao XID8 NOT NULL DEFAULT pg_current_xact_id(),
+    registrada_em TIMESTAMP NOT NULL DEFAULT now()
+);
+
+CREATE INDEX idx_alteracoes_direitos_transacao ON alteracoes_direitos (transacao);
+
+CREATE FUNCTION registrar_alteracao_modulos_usuario() RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP IN ('UPDATE', 'DELETE') THEN
+        INSERT INTO alteracoes_direitos (usuario_id) VALUES (OLD.usuario_id);
+    END IF;
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        INSERT INTO alteracoes_direitos (usuario_id) VALUES (NEW.usuario_id);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE FUNCTION registrar_alteracao_usuario() RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP = 'DELETE' THEN
+        INSERT INTO alteracoes_direitos (usuario_id) VALUES (OLD.id);
+    ELSE
+        INSERT INTO alteracoes_direitos (usuario_id) VALUES (NEW.id);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Qualquer gravação, inclusive a expiração em lote e alterações feitas direto no banco
+CREATE TRIGGER usuario_modulos_alteracao_direitos
+    AFTER INSERT OR UPDATE OR DELETE ON usuario_modulos
+    FOR EACH ROW EXECUTE FUNCTION registrar_alteracao_modulos_usuario();
+
+-- Usuário criado (o cache guarda os inexistentes) ou removido
+CREATE TRIGGER usuarios_alteracao_direitos
+    AFTER INSERT OR DELETE ON usuarios
+    FOR EACH ROW EXECUTE FUNCTION registrar_alteracao_usuario();
+
+-- O Hibernate regrava todas as colunas; só conta a mudança de situação ou departamento
+CREATE TRIGGER usuarios_situacao_alteracao_direitos
+    AFTER UPDATE ON usuarios
+    FOR EACH ROW
+    WHEN (OLD.ativo IS DISTINCT FROM NEW.ativo OR OLD.departamento IS DISTINCT FROM NEW.departamento)
+    EXECUTE FUNCTION registrar_alteracao_usuario();
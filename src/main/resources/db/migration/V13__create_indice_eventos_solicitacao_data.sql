@@ -0,0 +1,5 @@
+-- O detalhe e o histórico paginado filtram eventos_solicitacao por solicitacao_id. A tabela só é
+-- pequena enquanto a materialização acompanha as gravações; quando ela atrasa, sob carga, cada
+-- leitura viraria uma varredura completa. Mesma ordem do índice de historico_solicitacoes (V10).
+CREATE INDEX idx_eventos_solicitacao_data
+    ON eventos_solicitacao (solicitacao_id, data_hora DESC, id DESC);
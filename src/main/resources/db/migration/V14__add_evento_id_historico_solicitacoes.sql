@@ -0,0 +1,17 @@
+-- Desempate do histórico entre eventos no mesmo instante. Os ids de historico_solicitacoes e de
+-- eventos_solicitacao vêm de sequências independentes, então comparar um com o outro não segue a
+-- ordem de gravação e a ordem mudava depois da materialização. A linha materializada guarda o id
+-- do evento de origem; as gravadas direto aqui (expiração) tiram um valor da mesma sequência.
+ALTER TABLE historico_solicitacoes ADD COLUMN evento_id BIGINT;
+
+-- Linhas anteriores: mantêm a ordem entre si e ficam antes de qualquer evento (ids negativos)
+UPDATE historico_solicitacoes SET evento_id = id - (SELECT MAX(id) FROM historico_solicitacoes) - 1;
+
+ALTER TABLE historico_solicitacoes
+    ALTER COLUMN evento_id SET DEFAULT nextval('eventos_solicitacao_id_seq'),
+    ALTER COLUMN evento_id SET NOT NULL;
+
+CREATE INDEX idx_historico_solicitacao_evento
+    ON historico_solicitacoes (solicitacao_id, data_hora DESC, evento_id DESC);
+
+DROP INDEX idx_historico_solicitacao_data;
@@ -0,0 +1,13 @@
+-- Contador diário de protocolos, reservado em blocos por cada nó da aplicação
+CREATE TABLE sequencias_protocolo (
+    data DATE PRIMARY KEY,
+    ultimo_valor BIGINT NOT NULL
+);
+
+-- Continua a numeração dos dias que já possuem protocolos
+INSERT INTO sequencias_protocolo (data, ultimo_valor)
+SELECT TO_DATE(SUBSTRING(protocolo FROM 5 FOR 8), 'YYYYMMDD'),
+       MAX(CAST(SUBSTRING(protocolo FROM 14) AS BIGINT))
+FROM solicitacoes
+WHERE protocolo ~ '^SOL-[0-9]{8}-[0-9]+$'
+GROUP BY SUBSTRING(protocolo FROM 5 FOR 8);
@@ -0,0 +1,27 @@
+-- Versão do catálogo de módulos, verificada periodicamente por cada nó da aplicação
+CREATE TABLE catalogo_versao (
+    id SMALLINT PRIMARY KEY,
+    versao BIGINT NOT NULL
+);
+
+INSERT INTO catalogo_versao (id, versao) VALUES (1, 1);
+
+CREATE FUNCTION incrementar_versao_catalogo() RETURNS TRIGGER AS $$
+BEGIN
+    UPDATE catalogo_versao SET versao = versao + 1 WHERE id = 1;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Qualquer alteração no catálogo, inclusive feita diretamente no banco, gera nova versão
+CREATE TRIGGER modulos_versao_catalogo
+    AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON modulos
+    FOR EACH STATEMENT EXECUTE FUNCTION incrementar_versao_catalogo();
+
+CREATE TRIGGER modulo_departamentos_versao_catalogo
+    AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON modulo_departamentos
+    FOR EACH STATEMENT EXECUTE FUNCTION incrementar_versao_catalogo();
+
+CREATE TRIGGER modulo_incompativeis_versao_catalogo
+    AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON modulo_incompativeis
+    FOR EACH STATEMENT EXECUTE FUNCTION incrementar_versao_catalogo();
@@ -0,0 +1,4 @@
+-- Índice da listagem por cursor: filtra pelo usuário e entrega na ordem da página,
+-- continuando a partir do par (data_solicitacao, id) da última linha
+CREATE INDEX idx_solicitacoes_usuario_data_id
+    ON solicitacoes (usuario_id, data_solicitacao DESC, id DESC);
@@ -0,0 +1,15 @@
+-- Busca textual: índices de trigramas atendem ILIKE '%termo%' e similaridade (<%)
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX idx_solicitacoes_protocolo_trgm
+    ON solicitacoes USING GIN (protocolo gin_trgm_ops);
+
+CREATE INDEX idx_solicitacoes_justificativa_trgm
+    ON solicitacoes USING GIN (justificativa gin_trgm_ops);
+
+CREATE INDEX idx_modulos_nome_trgm
+    ON modulos USING GIN (nome gin_trgm_ops);
+
+-- Busca das solicitações de um módulo encontrado pelo nome
+CREATE INDEX idx_solicitacao_modulos_modulo
+    ON solicitacao_modulos (modulo_id);
@@ -0,0 +1,3 @@
+-- Varredura de expiração: solicitações ATIVO com data_expiracao vencida, das mais antigas
+CREATE INDEX idx_solicitacoes_status_expiracao
+    ON solicitacoes (status, data_expiracao);
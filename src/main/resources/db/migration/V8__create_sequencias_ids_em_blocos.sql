@@ -0,0 +1,9 @@
+-- Ids gerados por sequência em blocos de 50 (allocationSize das entidades): o Hibernate reserva
+-- um bloco por chamada e pode agrupar os inserts em batch, o que não é possível com IDENTITY.
+-- As sequências continuam como default das colunas para os inserts feitos direto via JDBC;
+-- cada nextval reserva um bloco inteiro, então os dois caminhos nunca geram o mesmo id.
+ALTER SEQUENCE usuarios_id_seq INCREMENT BY 50;
+ALTER SEQUENCE modulos_id_seq INCREMENT BY 50;
+ALTER SEQUENCE solicitacoes_id_seq INCREMENT BY 50;
+ALTER SEQUENCE historico_solicitacoes_id_seq INCREMENT BY 50;
+ALTER SEQUENCE refresh_tokens_id_seq INCREMENT BY 50;
@@ -0,0 +1,13 @@
+-- Eventos do histórico gravados na transação da solicitação, em forma compacta (tipo e detalhe),
+-- e movidos em lotes para historico_solicitacoes pela MaterializacaoHistorico. Sem chave
+-- estrangeira nem índice além da chave primária: o insert no caminho da requisição é só um
+-- append, e a tabela fica pequena porque é esvaziada continuamente.
+CREATE SEQUENCE eventos_solicitacao_id_seq INCREMENT BY 50;
+
+CREATE TABLE eventos_solicitacao (
+    id BIGINT PRIMARY KEY DEFAULT nextval('eventos_solicitacao_id_seq'),
+    solicitacao_id BIGINT NOT NULL,
+    tipo VARCHAR(20) NOT NULL,
+    detalhe VARCHAR(500),
+    data_hora TIMESTAMP NOT NULL
+);
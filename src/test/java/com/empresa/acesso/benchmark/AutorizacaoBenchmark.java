@@ -0,0 +1,118 @@
+package com.empresa.acesso.benchmark;
+
+import com.empresa.acesso.entity.Modulo;
+import com.empresa.acesso.repository.ModuloAtivoUsuario;
+import com.empresa.acesso.repository.UsuarioModulosRepository;
+import com.empresa.acesso.repository.UsuarioRepository;
+import com.empresa.acesso.service.AutorizacaoService;
+import com.empresa.acesso.service.CatalogoModulos;
+import com.empresa.acesso.service.CatalogoSnapshot;
+import com.empresa.acesso.service.DireitosUsuarios;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+/**
+ * Decisão de acesso com os direitos de todos os usuários já em cache: vazão e distribuição da
+ * latência (p99 em SampleTime) com 4 threads consultando pares aleatórios de usuário e módulo.
+ * Mede o serviço, sem HTTP nem autenticação.
+ *
+ * Execução: mvn -Pbenchmark test -DskipTests -Dbenchmark=AutorizacaoBenchmark
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class AutorizacaoBenchmark {
+    
+    private static final int MODULOS = 200;
+    
+    @Param({"10000"})
+    private int usuarios;
+    
+    private AutorizacaoService autorizacaoService;
+    
+    @Setup
+    public void setUp() {
+        UsuarioRepository usuarioRepository = mock(UsuarioRepository.class);
+        when(usuarioRepository.findModulosAtivosByUsuarioId(anyLong())).thenAnswer(invocation -> {
+            long usuarioId = invocation.getArgument(0);
+            List<ModuloAtivoUsuario> linhas = new ArrayList<>();
+            for (long moduloId = usuarioId % 10 + 1; moduloId <= MODULOS; moduloId += 20) {
+                linhas.add(linha(usuarioId, moduloId));
+            }
+            return linhas;
+        });
+        
+        List<Modulo> modulos = new ArrayList<>(MODULOS);
+        for (long id = 1; id <= MODULOS; id++) {
+            modulos.add(Modulo.builder()
+                .id(id)
+                .nome("Módulo " + id)
+                .descricao("Módulo " + id)
+                .ativo(true)
+                .departamentosPermitidos(new HashSet<>(Set.of("TI")))
+                .modulosIncompativeis(new HashSet<>())
+                .build());
+        }
+        // Sem mock no caminho medido: o custo de cada chamada ao Mockito dominaria o resultado
+        CatalogoSnapshot catalogo = CatalogoSnapshot.de(1L, modulos);
+        CatalogoModulos catalogoModulos = new CatalogoModulos(null, null, null, null) {
+            @Override
+            public CatalogoSnapshot snapshot() {
+                return catalogo;
+            }
+        };
+        
+        // Folga no tamanho: perto do limite o Caffeine já começa a descartar entradas
+        DireitosUsuarios direitosUsuarios = new DireitosUsuarios(usuarioRepository,
+            mock(UsuarioModulosRepository.class), new SimpleMeterRegistry(), 2L * usuarios, Duration.ofHours(1));
+        autorizacaoService = new AutorizacaoService(direitosUsuarios, catalogoModulos);
+        for (long usuarioId = 1; usuarioId <= usuarios; usuarioId++) {
+            direitosUsuarios.buscar(usuarioId);
+        }
+    }
+    
+    @Benchmark
+    public boolean possuiAcesso() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return autorizacaoService.possuiAcesso(random.nextLong(1, usuarios + 1), random.nextLong(1, MODULOS + 1));
+    }
+    
+    private static ModuloAtivoUsuario linha(long usuarioId, long moduloId) {
+        return new ModuloAtivoUsuario() {
+            @Override
+            public Long getUsuarioId() {
+                return usuarioId;
+            }
+            
+            @Override
+            public String getDepartamento() {
+                return "TI";
+            }
+            
+            @Override
+            public Boolean getAtivo() {
+                return true;
+            }
+            
+            @Override
+            public Long getModuloId() {
+                return moduloId;
+            }
+        };
+    }
+}
@@ -0,0 +1,108 @@
+package com.empresa.acesso.benchmark;
+
+import com.empresa.acesso.AcessoModulosApplication;
+import com.empresa.acesso.dto.CriarSolicitacaoRequest;
+import com.empresa.acesso.dto.CriarSolicitacaoResponse;
+import com.empresa.acesso.service.CatalogoModulos;
+import com.empresa.acesso.service.SolicitacaoService;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latência e comandos SQL para criar uma solicitação aprovada com 10 módulos, contra um
+ * PostgreSQL embarcado com o schema do Flyway. batchSize 1 equivale a um round-trip por
+ * linha, como acontecia com ids IDENTITY; com 50 os inserts de cada tabela vão em um único batch.
+ * A contagem de comandos por solicitação é impressa ao final de cada configuração.
+ *
+ * Execução: mvn -Pbenchmark test -DskipTests -Dbenchmark=CriacaoSolicitacaoBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 10, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CriacaoSolicitacaoBenchmark {
+    
+    @Param({"1", "50"})
+    private int batchSize;
+    
+    private EmbeddedPostgres postgres;
+    private ConfigurableApplicationContext contexto;
+    private SolicitacaoService solicitacaoService;
+    private JdbcTemplate jdbcTemplate;
+    private Statistics statistics;
+    private CriarSolicitacaoRequest request;
+    private Long usuarioId;
+    private long solicitacoes;
+    
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        postgres = EmbeddedPostgres.start();
+        contexto = new SpringApplicationBuilder(AcessoModulosApplication.class)
+            .web(WebApplicationType.NONE)
+            // Argumentos de linha de comando: precedem o application.yml, ao contrário de properties()
+            .run(
+                "--spring.datasource.url=" + postgres.getJdbcUrl("postgres", "postgres"),
+                "--spring.datasource.username=postgres",
+                "--spring.datasource.password=postgres",
+                "--spring.jpa.properties.hibernate.jdbc.batch_size=" + batchSize,
+                "--spring.jpa.properties.hibernate.generate_statistics=true",
+                "--logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN",
+                "--expiracao.habilitada=false");
+        solicitacaoService = contexto.getBean(SolicitacaoService.class);
+        jdbcTemplate = contexto.getBean(JdbcTemplate.class);
+        statistics = contexto.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+        
+        // Módulos sem incompatibilidades, liberados para TI, cujo limite é de 10 módulos ativos
+        Set<Long> moduloIds = new HashSet<>();
+        for (int i = 1; i <= 10; i++) {
+            Long id = jdbcTemplate.queryForObject("INSERT INTO modulos (nome, descricao, ativo) " +
+                "VALUES (?, 'Módulo do benchmark', true) RETURNING id", Long.class, "Benchmark " + i);
+            jdbcTemplate.update("INSERT INTO modulo_departamentos (modulo_id, departamento) VALUES (?, 'TI')", id);
+            moduloIds.add(id);
+        }
+        contexto.getBean(CatalogoModulos.class).invalidar();
+        
+        request = CriarSolicitacaoRequest.builder()
+            .moduloIds(moduloIds)
+            .justificativa("Acesso necessário para as atividades do novo colaborador da equipe")
+            .urgente(false)
+            .build();
+    }
+    
+    // Usuário novo a cada chamada: depois de aprovada, a mesma solicitação seria recusada
+    @Setup(Level.Invocation)
+    public void novoUsuario() {
+        usuarioId = jdbcTemplate.queryForObject("INSERT INTO usuarios (email, senha, nome, departamento, ativo) " +
+            "VALUES ('bench-' || gen_random_uuid() || '@empresa.com', 'x', 'Benchmark', 'TI', true) RETURNING id",
+            Long.class);
+    }
+    
+    @Benchmark
+    public CriarSolicitacaoResponse criarSolicitacaoCom10Modulos() {
+        if (solicitacoes++ == 0) {
+            statistics.clear();
+        }
+        return solicitacaoService.criarSolicitacao(request, usuarioId);
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        System.out.printf("%nbatchSize=%d: %.1f comandos por solicitação%n",
+            batchSize, statistics.getPrepareStatementCount() / (double) solicitacoes);
+        contexto.close();
+        postgres.close();
+    }
+}
@@ -0,0 +1,60 @@
+package com.empresa.acesso.benchmark;
+
+import com.empresa.acesso.validation.JustificativaValidator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Custo de validar uma justificativa: versão original (toLowerCase, trim e um
+ * {@code String.matches} por texto genérico, compilando a expressão a cada chamada) contra a
+ * lista compilada do {@link JustificativaValidator}. A justificativa curta é válida; a longa
+ * tem 500 caracteres, o máximo aceito, e é uma repetição rejeitada pela regra "aaa".
+ *
+ * Execução: mvn -Pbenchmark test -DskipTests -Dbenchmark=JustificativaValidatorBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JustificativaValidatorBenchmark {
+    
+    private static final List<String> TEXTOS_GENERICOS = List.of(
+        "teste", "aaa", "preciso", "test", "aaaa", "aaaaa",
+        "bbb", "ccc", "xxx", "zzz", "asdf", "qwerty"
+    );
+    
+    @Param({"curta", "longa"})
+    private String tamanho;
+    
+    private String justificativa;
+    private JustificativaValidator validator;
+    
+    @Setup
+    public void setUp() {
+        justificativa = "curta".equals(tamanho)
+            ? "Preciso acessar o módulo de relatórios para o fechamento mensal"
+            : "A".repeat(500);
+        validator = new JustificativaValidator();
+    }
+    
+    @Benchmark
+    public boolean validacaoOriginal() {
+        String justificativaLower = justificativa.toLowerCase().trim();
+        for (String textoGenerico : TEXTOS_GENERICOS) {
+            if (justificativaLower.equals(textoGenerico) ||
+                justificativaLower.matches("^" + textoGenerico + "+$")) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    @Benchmark
+    public boolean validacaoCompilada() {
+        return validator.isValid(justificativa, null);
+    }
+}
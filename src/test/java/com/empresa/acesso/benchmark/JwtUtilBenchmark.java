@@ -0,0 +1,63 @@
+package com.empresa.acesso.benchmark;
+
+import com.empresa.acesso.security.JwtUtil;
+import com.empresa.acesso.security.TokenClaims;
+import com.empresa.acesso.security.UsuarioAutenticado;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tokens verificados por segundo: validação antiga (chave e parser recriados a cada chamada,
+ * três parses por token) contra o parser pré-construído do {@link JwtUtil}.
+ *
+ * Execução: mvn -Pbenchmark test -DskipTests -Dbenchmark=JwtUtilBenchmark
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtUtilBenchmark {
+    
+    private static final String SECRET = "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970";
+    
+    private JwtUtil jwtUtil;
+    private String token;
+    
+    @Setup
+    public void setUp() {
+        jwtUtil = new JwtUtil(SECRET, 900000L);
+        token = jwtUtil.generateToken(UsuarioAutenticado.builder()
+            .id(1L)
+            .email("teste@empresa.com")
+            .departamento("TI")
+            .ativo(true)
+            .build());
+    }
+    
+    @Benchmark
+    public boolean validacaoAntiga() {
+        String username = parseAntigo(token).getSubject();
+        Date expiracao = parseAntigo(token).getExpiration();
+        return parseAntigo(token).getSubject().equals(username) && !expiracao.before(new Date());
+    }
+    
+    @Benchmark
+    public TokenClaims validacaoComParserCompartilhado() {
+        return jwtUtil.validateAndParse(token);
+    }
+    
+    private Claims parseAntigo(String token) {
+        return Jwts.parser()
+            .verifyWith(Keys.hmacShaKeyFor(SECRET.getBytes()))
+            .build()
+            .parseSignedClaims(token)
+            .getPayload();
+    }
+}
@@ -0,0 +1,103 @@
+package com.empresa.acesso.benchmark;
+
+import com.empresa.acesso.service.ModuloCatalogo;
+import com.empresa.acesso.service.RegrasCatalogo;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Custo de validarRegrasNegocio por solicitação: verificações originais sobre HashSets de
+ * Long/String contra as regras compiladas em mapas de bits, para catálogos de tamanhos diferentes.
+ * A solicitação é aprovada, portanto todas as regras são avaliadas.
+ *
+ * Execução: mvn -Pbenchmark test -DskipTests -Dbenchmark=RegrasCatalogoBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RegrasCatalogoBenchmark {
+    
+    private static final String[] DEPARTAMENTOS = {"TI", "Financeiro", "RH", "Operações"};
+    private static final int LIMITE_TI = 10;
+    
+    @Param({"10", "1000", "100000"})
+    private int tamanhoCatalogo;
+    
+    private List<ModuloCatalogo> modulosSolicitados;
+    private Set<Long> moduloIds;
+    private Set<Long> modulosAtivosIds;
+    private RegrasCatalogo regras;
+    
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        List<ModuloCatalogo> catalogo = new ArrayList<>(tamanhoCatalogo);
+        for (long id = 1; id <= tamanhoCatalogo; id++) {
+            Set<String> departamentos = new HashSet<>(Set.of("TI"));
+            departamentos.add(DEPARTAMENTOS[random.nextInt(DEPARTAMENTOS.length)]);
+            // Incompatibilidades apenas com módulos fora da faixa usada pelo usuário
+            Set<Long> incompativeis = new HashSet<>();
+            if (tamanhoCatalogo > 10) {
+                for (int i = 0; i < 3; i++) {
+                    incompativeis.add(11L + random.nextInt(tamanhoCatalogo - 10));
+                }
+            }
+            catalogo.add(ModuloCatalogo.builder()
+                .id(id)
+                .nome("Módulo " + id)
+                .descricao("Módulo " + id)
+                .ativo(true)
+                .departamentosPermitidos(departamentos)
+                .modulosIncompativeis(incompativeis)
+                .build());
+        }
+        regras = RegrasCatalogo.compilar(catalogo);
+        
+        modulosAtivosIds = Set.of(1L, 2L, 3L, 4L);
+        moduloIds = Set.of(5L, 6L, 7L, 8L, 9L);
+        modulosSolicitados = moduloIds.stream()
+            .map(id -> catalogo.get((int) (id - 1)))
+            .toList();
+    }
+    
+    @Benchmark
+    public String regrasOriginais() {
+        String departamento = "TI";
+        for (ModuloCatalogo modulo : modulosSolicitados) {
+            if (!modulo.getDepartamentosPermitidos().contains(departamento)) {
+                return "Departamento sem permissão para acessar este módulo";
+            }
+        }
+        
+        for (ModuloCatalogo modulo : modulosSolicitados) {
+            for (Long incompativelId : modulo.getModulosIncompativeis()) {
+                if (modulosAtivosIds.contains(incompativelId)) {
+                    return "Módulo incompatível com outro módulo já ativo em seu perfil";
+                }
+            }
+        }
+        
+        for (ModuloCatalogo modulo1 : modulosSolicitados) {
+            for (ModuloCatalogo modulo2 : modulosSolicitados) {
+                if (!modulo1.equals(modulo2) && modulo1.getModulosIncompativeis().contains(modulo2.getId())) {
+                    return "Módulo incompatível com outro módulo já ativo em seu perfil";
+                }
+            }
+        }
+        
+        if (modulosAtivosIds.size() + modulosSolicitados.size() > LIMITE_TI) {
+            return "Limite de módulos ativos atingido";
+        }
+        return null;
+    }
+    
+    @Benchmark
+    public String regrasCompiladas() {
+        return regras.validar("TI", modulosAtivosIds, moduloIds, LIMITE_TI);
+    }
+}
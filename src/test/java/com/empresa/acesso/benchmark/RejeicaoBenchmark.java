@@ -0,0 +1,108 @@
+package com.empresa.acesso.benchmark;
+
+import com.empresa.acesso.exception.BusinessException;
+import com.empresa.acesso.exception.CodigoErro;
+import com.empresa.acesso.exception.ErrorResponse;
+import com.empresa.acesso.exception.GlobalExceptionHandler;
+import com.empresa.acesso.exception.UnauthorizedException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caminho de rejeição de ponta a ponta, sem HTTP: a exceção é lançada a {@code profundidade}
+ * quadros da captura (uma requisição real passa por bem mais de cem, entre filtros e proxies) e
+ * vira o corpo JSON da resposta. A versão original captura a pilha e serializa um ErrorResponse
+ * com o ObjectMapper; a atual lança uma exceção de domínio compartilhada (refresh token inválido)
+ * ou criada na hora com mensagem variável, e usa o corpo pré-serializado do handler.
+ *
+ * Execução: mvn -Pbenchmark test -DskipTests -Dbenchmark=RejeicaoBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RejeicaoBenchmark {
+    
+    private static final UnauthorizedException TOKEN_INVALIDO =
+        new UnauthorizedException(CodigoErro.REFRESH_TOKEN_INVALIDO, "Refresh token inválido");
+    
+    @Param({"20", "150"})
+    private int profundidade;
+    
+    private ObjectMapper objectMapper;
+    private GlobalExceptionHandler handler;
+    private MockHttpServletRequest request;
+    
+    @Setup
+    public void setUp() {
+        objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        handler = new GlobalExceptionHandler();
+        request = new MockHttpServletRequest("POST", "/api/auth/refresh");
+    }
+    
+    @Benchmark
+    public byte[] rejeicaoOriginal() throws Exception {
+        try {
+            return descer(profundidade, () -> {
+                throw new ExcecaoComPilha("Refresh token inválido");
+            });
+        } catch (ExcecaoComPilha e) {
+            ErrorResponse error = ErrorResponse.builder()
+                .timestamp(LocalDateTime.now())
+                .status(HttpStatus.UNAUTHORIZED.value())
+                .error("Unauthorized")
+                .message(e.getMessage())
+                .path(request.getRequestURI())
+                .build();
+            return objectMapper.writeValueAsBytes(error);
+        }
+    }
+    
+    @Benchmark
+    public byte[] rejeicaoCompartilhada() {
+        try {
+            return descer(profundidade, () -> {
+                throw TOKEN_INVALIDO;
+            });
+        } catch (UnauthorizedException e) {
+            return handler.handleDomainException(e, request).getBody();
+        }
+    }
+    
+    @Benchmark
+    public byte[] rejeicaoMensagemVariavel() {
+        try {
+            return descer(profundidade, () -> {
+                throw new BusinessException(CodigoErro.ACESSO_JA_ATIVO,
+                    "Usuário já possui acesso ativo ao módulo: " + request.getMethod());
+            });
+        } catch (BusinessException e) {
+            return handler.handleDomainException(e, request).getBody();
+        }
+    }
+    
+    private static byte[] descer(int quadros, Runnable rejeitar) {
+        if (quadros == 0) {
+            rejeitar.run();
+            return null;
+        }
+        return descer(quadros - 1, rejeitar);
+    }
+    
+    private static class ExcecaoComPilha extends RuntimeException {
+        ExcecaoComPilha(String message) {
+            super(message);
+        }
+    }
+}
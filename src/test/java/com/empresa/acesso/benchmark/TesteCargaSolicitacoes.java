@@ -0,0 +1,137 @@
+package com.empresa.acesso.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Teste de carga de listarSolicitacoes e criarSolicitacao contra uma instância em execução.
+ * Usado para comparar o modo padrão com o profile "virtual" (threads virtuais).
+ *
+ * Execução: mvn test-compile exec:java -Dexec.classpathScope=test
+ *   -Dexec.mainClass=com.empresa.acesso.benchmark.TesteCargaSolicitacoes
+ *   -Dexec.args="http://localhost:8080 30 200"
+ *
+ * Argumentos: URL base, duração de cada cenário em segundos e número de clientes concorrentes.
+ * A criação usa o usuário do Financeiro pedindo Auditoria: a solicitação é negada por
+ * departamento, mas percorre o fluxo completo de criação e grava a solicitação.
+ */
+public class TesteCargaSolicitacoes {
+    
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    
+    private static final String CORPO_CRIACAO = "{\"moduloIds\":[10],"
+        + "\"justificativa\":\"Acesso necessário para conferência mensal dos relatórios de auditoria\","
+        + "\"urgente\":false}";
+    
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8080";
+        int duracaoSegundos = args.length > 1 ? Integer.parseInt(args[1]) : 30;
+        int clientes = args.length > 2 ? Integer.parseInt(args[2]) : 200;
+        
+        HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+        String token = login(client, baseUrl);
+        
+        HttpRequest listar = HttpRequest.newBuilder(URI.create(baseUrl + "/api/solicitacoes?page=0&size=10"))
+            .header("Authorization", "Bearer " + token)
+            .GET()
+            .build();
+        HttpRequest criar = HttpRequest.newBuilder(URI.create(baseUrl + "/api/solicitacoes"))
+            .header("Authorization", "Bearer " + token)
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(CORPO_CRIACAO))
+            .build();
+        
+        executar("criarSolicitacao", client, criar, duracaoSegundos, clientes);
+        executar("listarSolicitacoes", client, listar, duracaoSegundos, clientes);
+    }
+    
+    private static String login(HttpClient client, String baseUrl) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/auth/login"))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(
+                "{\"email\":\"financeiro@empresa.com\",\"password\":\"password\"}"))
+            .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Falha no login: " + response.statusCode() + " " + response.body());
+        }
+        return (String) MAPPER.readValue(response.body(), Map.class).get("accessToken");
+    }
+    
+    private static void executar(String cenario, HttpClient client, HttpRequest request,
+                                 int duracaoSegundos, int clientes) throws Exception {
+        long fim = System.nanoTime() + Duration.ofSeconds(duracaoSegundos).toNanos();
+        AtomicLong erros = new AtomicLong();
+        List<Future<long[]>> resultados = new ArrayList<>();
+        
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < clientes; i++) {
+                resultados.add(executor.submit(() -> {
+                    long[] latencias = new long[1024];
+                    int total = 0;
+                    while (System.nanoTime() < fim) {
+                        long inicio = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() >= 300) {
+                                erros.incrementAndGet();
+                            }
+                        } catch (Exception e) {
+                            erros.incrementAndGet();
+                        }
+                        if (total == latencias.length) {
+                            latencias = Arrays.copyOf(latencias, total * 2);
+                        }
+                        latencias[total++] = System.nanoTime() - inicio;
+                    }
+                    return Arrays.copyOf(latencias, total);
+                }));
+            }
+        }
+        
+        long[] todas = resultados.stream()
+            .map(TesteCargaSolicitacoes::obter)
+            .flatMapToLong(Arrays::stream)
+            .sorted()
+            .toArray();
+        
+        System.out.printf("%-20s requisicoes=%d erros=%d throughput=%.1f req/s p50=%.1f ms p99=%.1f ms%n",
+            cenario,
+            todas.length,
+            erros.get(),
+            todas.length / (double) duracaoSegundos,
+            percentil(todas, 0.50),
+            percentil(todas, 0.99));
+    }
+    
+    private static long[] obter(Future<long[]> future) {
+        try {
+            return future.get();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    private static double percentil(long[] ordenadas, double percentil) {
+        if (ordenadas.length == 0) {
+            return 0;
+        }
+        int indice = (int) Math.ceil(percentil * ordenadas.length) - 1;
+        return ordenadas[Math.max(0, indice)] / 1_000_000.0;
+    }
+}
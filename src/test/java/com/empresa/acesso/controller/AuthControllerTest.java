@@ -3,6 +3,9 @@ package com.empresa.acesso.controller;
 import com.empresa.acesso.dto.AuthResponse;
 import com.empresa.acesso.dto.LoginRequest;
 import com.empresa.acesso.dto.RefreshTokenRequest;
+import com.empresa.acesso.exception.CodigoErro;
+import com.empresa.acesso.exception.UnauthorizedException;
+import com.empresa.acesso.security.TokenCache;
 import com.empresa.acesso.service.AuthService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
@@ -31,6 +34,9 @@ class AuthControllerTest {
     @MockBean
     private AuthService authService;
     
+    @MockBean
+    private TokenCache tokenCache;
+    
     @Test
     void deveRealizarLoginComSucesso() throws Exception {
         LoginRequest request = LoginRequest.builder()
@@ -81,4 +87,26 @@ class AuthControllerTest {
         
         verify(authService).refreshToken(any(RefreshTokenRequest.class));
     }
+    
+    @Test
+    void deveResponderRefreshTokenInvalidoComCorpoDeErro() throws Exception {
+        RefreshTokenRequest request = RefreshTokenRequest.builder()
+            .refreshToken("refresh-token")
+            .build();
+        
+        when(authService.refreshToken(any(RefreshTokenRequest.class)))
+            .thenThrow(new UnauthorizedException(CodigoErro.REFRESH_TOKEN_INVALIDO, "Refresh token inválido"));
+        
+        mockMvc.perform(post("/api/auth/refresh")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+            .andExpect(status().isUnauthorized())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+            .andExpect(jsonPath("$.status").value(401))
+            .andExpect(jsonPath("$.error").value("Unauthorized"))
+            .andExpect(jsonPath("$.codigo").value(CodigoErro.REFRESH_TOKEN_INVALIDO))
+            .andExpect(jsonPath("$.message").value("Refresh token inválido"))
+            .andExpect(jsonPath("$.path").value("/api/auth/refresh"))
+            .andExpect(jsonPath("$.timestamp").isNotEmpty());
+    }
 }
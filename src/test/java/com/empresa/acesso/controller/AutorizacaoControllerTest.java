@@ -0,0 +1,70 @@
+package com.empresa.acesso.controller;
+
+import com.empresa.acesso.security.ClienteSistemaFilter;
+import com.empresa.acesso.security.JwtUtil;
+import com.empresa.acesso.security.UsuarioAutenticado;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties =
+    "autorizacao.clientes=portal:cdc632f97be2d6d85c32d78d0b786b6db59da7af6f400fcab3ef5b824ab6a6e4")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class AutorizacaoControllerTest {
+    
+    private static final String CHAVE_PORTAL = "chave-do-portal-de-testes";
+    private static final String LOTE = "{\"consultas\":[{\"usuarioId\":999,\"moduloId\":1}]}";
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private JwtUtil jwtUtil;
+    
+    @Test
+    void devePermitirSistemaClienteComChaveCadastrada() throws Exception {
+        mockMvc.perform(get("/api/autorizacoes/usuarios/999/modulos/1")
+                .header(ClienteSistemaFilter.CABECALHO, CHAVE_PORTAL))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.permitido").value(false));
+        
+        mockMvc.perform(post("/api/autorizacoes/lote")
+                .header(ClienteSistemaFilter.CABECALHO, CHAVE_PORTAL)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(LOTE))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].usuarioId").value(999));
+    }
+    
+    @Test
+    void deveRecusarUsuarioFinalEChaveDesconhecida() throws Exception {
+        String token = jwtUtil.generateToken(UsuarioAutenticado.builder()
+            .id(1L)
+            .email("usuario@empresa.com")
+            .departamento("TI")
+            .ativo(true)
+            .build());
+        
+        mockMvc.perform(get("/api/autorizacoes/usuarios/1/modulos/1")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+            .andExpect(status().isForbidden());
+        mockMvc.perform(post("/api/autorizacoes/lote")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(LOTE))
+            .andExpect(status().isForbidden());
+        mockMvc.perform(get("/api/autorizacoes/usuarios/1/modulos/1")
+                .header(ClienteSistemaFilter.CABECALHO, "outra-chave"))
+            .andExpect(status().isForbidden());
+    }
+}
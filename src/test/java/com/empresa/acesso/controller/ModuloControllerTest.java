@@ -0,0 +1,69 @@
+package com.empresa.acesso.controller;
+
+import com.empresa.acesso.dto.ModuloResponse;
+import com.empresa.acesso.security.TokenCache;
+import com.empresa.acesso.service.CatalogoSnapshot;
+import com.empresa.acesso.service.ModuloService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(ModuloController.class)
+@AutoConfigureMockMvc(addFilters = false)
+class ModuloControllerTest {
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @MockBean
+    private ModuloService moduloService;
+    
+    @MockBean
+    private TokenCache tokenCache;
+    
+    private final CatalogoSnapshot catalogo = CatalogoSnapshot.de(7L, List.of());
+    
+    @Test
+    void deveListarModulosComEtagSemCacheCompartilhado() throws Exception {
+        when(moduloService.catalogo()).thenReturn(catalogo);
+        when(moduloService.etagCatalogo(catalogo)).thenReturn("\"catalogo-7\"");
+        when(moduloService.listarModulosDisponiveis(catalogo)).thenReturn(List.of(ModuloResponse.builder()
+            .id(1L)
+            .nome("Portal do Colaborador")
+            .ativo(true)
+            .build()));
+        
+        mockMvc.perform(get("/api/modulos"))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, "\"catalogo-7\""))
+            .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache, private"))
+            .andExpect(jsonPath("$[0].nome").value("Portal do Colaborador"));
+        
+        // ETag e corpo do mesmo snapshot
+        verify(moduloService, times(1)).catalogo();
+    }
+    
+    @Test
+    void deveResponderNaoModificadoSemMontarALista() throws Exception {
+        when(moduloService.catalogo()).thenReturn(catalogo);
+        when(moduloService.etagCatalogo(catalogo)).thenReturn("\"catalogo-7\"");
+        
+        mockMvc.perform(get("/api/modulos").header(HttpHeaders.IF_NONE_MATCH, "\"catalogo-6\", \"catalogo-7\""))
+            .andExpect(status().isNotModified())
+            .andExpect(header().string(HttpHeaders.ETAG, "\"catalogo-7\""))
+            .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache, private"))
+            .andExpect(content().string(""));
+        
+        verify(moduloService, never()).listarModulosDisponiveis(any());
+    }
+}
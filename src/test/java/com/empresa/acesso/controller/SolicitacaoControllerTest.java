@@ -0,0 +1,164 @@
+package com.empresa.acesso.controller;
+
+import com.empresa.acesso.exception.ServiceUnavailableException;
+import com.empresa.acesso.security.TokenCache;
+import com.empresa.acesso.security.UsuarioAutenticado;
+import com.empresa.acesso.service.ExportacaoSolicitacoes;
+import com.empresa.acesso.service.SolicitacaoService;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(SolicitacaoController.class)
+@AutoConfigureMockMvc(addFilters = false)
+class SolicitacaoControllerTest {
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @MockBean
+    private SolicitacaoService solicitacaoService;
+    
+    @MockBean
+    private ExportacaoSolicitacoes exportacaoSolicitacoes;
+    
+    @MockBean
+    private TokenCache tokenCache;
+    
+    @Autowired
+    private ExecutorControlado executor;
+    
+    @BeforeEach
+    void setUp() {
+        UsuarioAutenticado autenticado = UsuarioAutenticado.builder()
+            .id(1L)
+            .email("usuario@empresa.com")
+            .departamento("TI")
+            .ativo(true)
+            .build();
+        SecurityContextHolder.getContext().setAuthentication(
+            new UsernamePasswordAuthenticationToken(autenticado, null, List.of()));
+        when(exportacaoSolicitacoes.getTempoLimite()).thenReturn(Duration.ofMinutes(10));
+    }
+    
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        executor.segurar = false;
+        executor.pendentes.clear();
+    }
+    
+    @Test
+    void deveExportarComTempoLimiteProprio() throws Exception {
+        ExportacaoSolicitacoes.Exportacao exportacao = mock(ExportacaoSolicitacoes.Exportacao.class);
+        doAnswer(invocacao -> {
+            invocacao.<OutputStream>getArgument(0).write("{\"id\":1}\n".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(exportacao).writeTo(any());
+        when(exportacaoSolicitacoes.iniciar(eq(1L), any(), any(), any(), any(), any(),
+            eq(ExportacaoSolicitacoes.Formato.NDJSON))).thenReturn(exportacao);
+        
+        MvcResult resultado = mockMvc.perform(get("/api/solicitacoes/export"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        
+        // Só a exportação usa o tempo limite longo; as demais respostas ficam no padrão
+        assertEquals(Duration.ofMinutes(10).toMillis(), resultado.getRequest().getAsyncContext().getTimeout());
+        mockMvc.perform(asyncDispatch(resultado))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"solicitacoes.ndjson\""))
+            .andExpect(content().string("{\"id\":1}\n"));
+    }
+    
+    @Test
+    void deveLiberarVagaQuandoTempoLimiteVenceAntesDoCorpoComecar() throws Exception {
+        ExportacaoSolicitacoes.Exportacao exportacao = mock(ExportacaoSolicitacoes.Exportacao.class);
+        when(exportacaoSolicitacoes.iniciar(any(), any(), any(), any(), any(), any(), any())).thenReturn(exportacao);
+        executor.segurar = true;
+        
+        MvcResult resultado = mockMvc.perform(get("/api/solicitacoes/export"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        
+        MockAsyncContext contexto = (MockAsyncContext) resultado.getRequest().getAsyncContext();
+        for (AsyncListener listener : contexto.getListeners()) {
+            listener.onTimeout(new AsyncEvent(contexto));
+        }
+        contexto.complete();
+        
+        assertFalse(executor.pendentes.isEmpty());
+        verify(exportacao, never()).writeTo(any());
+        verify(exportacao).liberar();
+    }
+    
+    @Test
+    void deveRecusarExportacaoSemVaga() throws Exception {
+        when(exportacaoSolicitacoes.iniciar(any(), any(), any(), any(), any(), any(), any()))
+            .thenThrow(new ServiceUnavailableException("Muitas exportações em andamento. Tente novamente em instantes"));
+        
+        mockMvc.perform(get("/api/solicitacoes/export"))
+            .andExpect(status().isServiceUnavailable())
+            .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"))
+            .andExpect(request().asyncNotStarted());
+    }
+    
+    /**
+     * Executor das respostas assíncronas que, quando pedido, guarda as tarefas sem executá-las.
+     */
+    static class ExecutorControlado implements AsyncTaskExecutor {
+        
+        private final AsyncTaskExecutor delegado = new SimpleAsyncTaskExecutor();
+        private final Queue<Runnable> pendentes = new ConcurrentLinkedQueue<>();
+        private volatile boolean segurar;
+        
+        @Override
+        public void execute(Runnable tarefa) {
+            if (segurar) {
+                pendentes.add(tarefa);
+            } else {
+                delegado.execute(tarefa);
+            }
+        }
+    }
+    
+    @TestConfiguration
+    static class Configuracao {
+        
+        @Bean
+        ExecutorControlado applicationTaskExecutor() {
+            return new ExecutorControlado();
+        }
+    }
+}
@@ -1,5 +1,9 @@
 package com.empresa.acesso.exception;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import jakarta.servlet.http.HttpServletRequest;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -8,12 +12,15 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.validation.BindingResult;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -22,6 +29,10 @@ import static org.mockito.Mockito.*;
 @ExtendWith(MockitoExtension.class)
 class GlobalExceptionHandlerTest {
     
+    private final ObjectMapper objectMapper = new ObjectMapper()
+        .registerModule(new JavaTimeModule())
+        .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    
     @InjectMocks
     private GlobalExceptionHandler exceptionHandler;
     
@@ -30,55 +41,72 @@ class GlobalExceptionHandlerTest {
     
     @BeforeEach
     void setUp() {
-        when(request.getRequestURI()).thenReturn("/api/test");
+        lenient().when(request.getRequestURI()).thenReturn("/api/test");
     }
     
     @Test
-    void deveTratarBusinessException() {
+    void deveTratarBusinessException() throws Exception {
         BusinessException ex = new BusinessException("Erro de negócio");
         
-        ResponseEntity<ErrorResponse> response = exceptionHandler.handleBusinessException(ex, request);
+        ResponseEntity<byte[]> response = exceptionHandler.handleDomainException(ex, request);
+        ErrorResponse body = ler(response);
         
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
-        assertNotNull(response.getBody());
-        assertEquals("Erro de negócio", response.getBody().getMessage());
-        assertEquals(400, response.getBody().getStatus());
+        assertEquals(MediaType.APPLICATION_JSON, response.getHeaders().getContentType());
+        assertEquals("Erro de negócio", body.getMessage());
+        assertEquals(400, body.getStatus());
+        assertEquals("Business Error", body.getError());
+        assertEquals(CodigoErro.REGRA_NEGOCIO, body.getCodigo());
+        assertEquals("/api/test", body.getPath());
     }
     
     @Test
-    void deveTratarResourceNotFoundException() {
+    void deveTratarResourceNotFoundException() throws Exception {
         ResourceNotFoundException ex = new ResourceNotFoundException("Recurso não encontrado");
         
-        ResponseEntity<ErrorResponse> response = exceptionHandler.handleResourceNotFoundException(ex, request);
+        ResponseEntity<byte[]> response = exceptionHandler.handleDomainException(ex, request);
+        ErrorResponse body = ler(response);
         
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
-        assertNotNull(response.getBody());
-        assertEquals("Recurso não encontrado", response.getBody().getMessage());
-        assertEquals(404, response.getBody().getStatus());
+        assertEquals("Recurso não encontrado", body.getMessage());
+        assertEquals(404, body.getStatus());
     }
     
     @Test
-    void deveTratarUnauthorizedException() {
-        UnauthorizedException ex = new UnauthorizedException("Não autorizado");
+    void deveTratarUnauthorizedException() throws Exception {
+        UnauthorizedException ex = new UnauthorizedException(CodigoErro.REFRESH_TOKEN_INVALIDO, "Não autorizado");
         
-        ResponseEntity<ErrorResponse> response = exceptionHandler.handleUnauthorizedException(ex, request);
+        ResponseEntity<byte[]> response = exceptionHandler.handleDomainException(ex, request);
+        ErrorResponse body = ler(response);
         
         assertEquals(HttpStatus.UNAUTHORIZED, response.getStatusCode());
-        assertNotNull(response.getBody());
-        assertEquals("Não autorizado", response.getBody().getMessage());
-        assertEquals(401, response.getBody().getStatus());
+        assertEquals("Não autorizado", body.getMessage());
+        assertEquals(401, body.getStatus());
+        assertEquals(CodigoErro.REFRESH_TOKEN_INVALIDO, body.getCodigo());
+    }
+    
+    @Test
+    void deveTratarServiceUnavailableException() throws Exception {
+        ServiceUnavailableException ex = new ServiceUnavailableException("Serviço sobrecarregado");
+        
+        ResponseEntity<byte[]> response = exceptionHandler.handleServiceUnavailableException(ex, request);
+        
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        assertEquals("1", response.getHeaders().getFirst("Retry-After"));
+        assertEquals(503, ler(response).getStatus());
     }
     
     @Test
-    void deveTratarBadCredentialsException() {
+    void deveTratarBadCredentialsException() throws Exception {
         BadCredentialsException ex = new BadCredentialsException("Credenciais inválidas");
         
-        ResponseEntity<ErrorResponse> response = exceptionHandler.handleBadCredentialsException(ex, request);
+        ResponseEntity<byte[]> response = exceptionHandler.handleBadCredentialsException(ex, request);
+        ErrorResponse body = ler(response);
         
         assertEquals(HttpStatus.UNAUTHORIZED, response.getStatusCode());
-        assertNotNull(response.getBody());
-        assertEquals("Email ou senha inválidos", response.getBody().getMessage());
-        assertEquals(401, response.getBody().getStatus());
+        assertEquals("Email ou senha inválidos", body.getMessage());
+        assertEquals(401, body.getStatus());
+        assertEquals(CodigoErro.CREDENCIAIS_INVALIDAS, body.getCodigo());
     }
     
     @Test
@@ -100,14 +128,54 @@ class GlobalExceptionHandlerTest {
     }
     
     @Test
-    void deveTratarGenericException() {
+    void deveTratarGenericException() throws Exception {
         Exception ex = new Exception("Erro genérico");
         
-        ResponseEntity<ErrorResponse> response = exceptionHandler.handleGenericException(ex, request);
+        ResponseEntity<byte[]> response = exceptionHandler.handleGenericException(ex, request);
+        ErrorResponse body = ler(response);
         
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
+        assertEquals("Erro interno do servidor", body.getMessage());
+        assertEquals(500, body.getStatus());
+    }
+    
+    @Test
+    void deveSerializarComoOJacksonSerializariaOErrorResponse() throws Exception {
+        LocalDateTime instante = LocalDateTime.of(2024, 3, 1, 10, 0, 0, 120_000_000);
+        String mensagem = "Módulo \"Financeiro\\Contábil\" não está ativo\n\t";
+        String path = "/api/solicitacoes/\u00e7\"\u0001";
+        
+        byte[] corpo = CorpoErro.de(HttpStatus.BAD_REQUEST, "Business Error", CodigoErro.MODULO_INATIVO, mensagem)
+            .serializar(instante, path);
+        ErrorResponse esperado = ErrorResponse.builder()
+            .timestamp(instante)
+            .status(400)
+            .error("Business Error")
+            .codigo(CodigoErro.MODULO_INATIVO)
+            .message(mensagem)
+            .path(path)
+            .build();
+        
+        assertEquals(objectMapper.writeValueAsString(esperado), new String(corpo, StandardCharsets.UTF_8));
+        
+        JsonNode semPath = objectMapper.readTree(CorpoErro.de(HttpStatus.NOT_FOUND, "Resource Not Found", null, null)
+            .serializar(instante, null));
+        assertTrue(semPath.get("path").isNull());
+        assertTrue(semPath.get("codigo").isNull());
+    }
+    
+    @Test
+    void excecoesDeDominioNaoCapturamPilha() {
+        BusinessException ex = new BusinessException("Erro de negócio");
+        ex.addSuppressed(new IllegalStateException());
+        
+        assertEquals(0, ex.getStackTrace().length);
+        assertEquals(0, ex.getSuppressed().length);
+        assertEquals(CodigoErro.REGRA_NEGOCIO, ex.getCodigo());
+    }
+    
+    private ErrorResponse ler(ResponseEntity<byte[]> response) throws Exception {
         assertNotNull(response.getBody());
-        assertEquals("Erro interno do servidor", response.getBody().getMessage());
-        assertEquals(500, response.getBody().getStatus());
+        return objectMapper.readValue(response.getBody(), ErrorResponse.class);
     }
 }
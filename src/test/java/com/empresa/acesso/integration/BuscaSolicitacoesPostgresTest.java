@@ -0,0 +1,156 @@
+package com.empresa.acesso.integration;
+
+import com.empresa.acesso.dto.ModuloSimpleResponse;
+import com.empresa.acesso.dto.SolicitacaoResponse;
+import com.empresa.acesso.exception.BusinessException;
+import com.empresa.acesso.repository.SolicitacaoRepository;
+import com.empresa.acesso.service.SolicitacaoService;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Busca textual contra um PostgreSQL real (pg_trgm não existe no H2): schema criado pelo
+ * Flyway, massa de dados grande o bastante para o planejador preferir os índices.
+ * O catálogo de módulos do teste é pequeno demais para usar idx_modulos_nome_trgm.
+ */
+@SpringBootTest(properties = {
+    "historico.materializacao.habilitada=false",
+    "direitos.sincronizacao.habilitada=false"
+})
+class BuscaSolicitacoesPostgresTest {
+    
+    private static final long USUARIO_TI = 1L;
+    private static final long USUARIO_FINANCEIRO = 2L;
+    private static final int TOTAL_CARGA = 20000;
+    
+    private static EmbeddedPostgres postgres;
+    
+    @Autowired
+    private SolicitacaoService solicitacaoService;
+    
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) throws IOException {
+        postgres = EmbeddedPostgres.start();
+        registry.add("spring.datasource.url", () -> postgres.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "postgres");
+    }
+    
+    @AfterAll
+    static void pararPostgres() throws IOException {
+        postgres.close();
+    }
+    
+    @BeforeAll
+    static void popularBanco(@Autowired JdbcTemplate jdbcTemplate) {
+        jdbcTemplate.update("INSERT INTO solicitacoes (protocolo, usuario_id, justificativa, urgente, status, data_solicitacao) " +
+            "SELECT 'CARGA-' || n, CASE WHEN n % 50 = 0 THEN 1 ELSE 2 END, " +
+            "       'Acesso para rotina operacional ' || n || ' do setor', false, 'NEGADO', " +
+            "       TIMESTAMP '2024-01-01' + n * INTERVAL '1 minute' " +
+            "FROM generate_series(1, ?) AS n", TOTAL_CARGA);
+        jdbcTemplate.update("INSERT INTO solicitacao_modulos (solicitacao_id, modulo_id) " +
+            "SELECT id, 1 FROM solicitacoes WHERE protocolo LIKE 'CARGA-%'");
+        
+        inserir(jdbcTemplate, "BUSCA-1", USUARIO_TI, "Preciso conciliar extratos bancários do mês", 3);
+        inserir(jdbcTemplate, "BUSCA-2", USUARIO_TI, "Apoio na conciliação dos extratos do trimestre", 3);
+        inserir(jdbcTemplate, "BUSCA-3", USUARIO_TI, "Revisão de logs solicitada pelo comitê", 10);
+        inserir(jdbcTemplate, "BUSCA-4", USUARIO_FINANCEIRO, "Conciliação das contas a pagar do mês", 3);
+        
+        jdbcTemplate.execute("ANALYZE");
+    }
+    
+    private static void inserir(JdbcTemplate jdbcTemplate, String protocolo, long usuarioId,
+                                String justificativa, long moduloId) {
+        Long id = jdbcTemplate.queryForObject("INSERT INTO solicitacoes " +
+            "(protocolo, usuario_id, justificativa, urgente, status, data_solicitacao) " +
+            "VALUES (?, ?, ?, false, 'NEGADO', TIMESTAMP '2023-06-01') RETURNING id",
+            Long.class, protocolo, usuarioId, justificativa);
+        jdbcTemplate.update("INSERT INTO solicitacao_modulos (solicitacao_id, modulo_id) VALUES (?, ?)", id, moduloId);
+    }
+    
+    @Test
+    void deveOrdenarResultadosPorRelevancia() {
+        List<SolicitacaoResponse> resultado = solicitacaoService.buscarSolicitacoes(USUARIO_TI, "conciliação", 10);
+        
+        // Palavra exata antes da palavra parecida; a solicitação de outro usuário não aparece
+        assertEquals(List.of("BUSCA-2", "BUSCA-1"),
+            resultado.stream().map(SolicitacaoResponse::getProtocolo).toList());
+    }
+    
+    @Test
+    void deveEncontrarSolicitacoesPeloNomeDoModulo() {
+        List<SolicitacaoResponse> resultado = solicitacaoService.buscarSolicitacoes(USUARIO_TI, "auditoria", 10);
+        
+        assertEquals(List.of("BUSCA-3"),
+            resultado.stream().map(SolicitacaoResponse::getProtocolo).toList());
+        assertEquals(List.of(new ModuloSimpleResponse(10L, "Auditoria")), resultado.get(0).getModulos());
+    }
+    
+    @Test
+    void deveTratarCuringasDoTermoComoTextoLiteral() {
+        assertTrue(solicitacaoService.buscarSolicitacoes(USUARIO_TI, "%%%", 10).isEmpty());
+        assertTrue(solicitacaoService.buscarSolicitacoes(USUARIO_TI, "___", 10).isEmpty());
+    }
+    
+    @Test
+    void deveRejeitarTermoCurto() {
+        BusinessException exception = assertThrows(BusinessException.class,
+            () -> solicitacaoService.buscarSolicitacoes(USUARIO_TI, " ab ", 10));
+        
+        assertEquals("O termo de busca deve ter pelo menos 3 caracteres", exception.getMessage());
+    }
+    
+    @Test
+    void deveUsarIndicesDeTrigramasNoPlanoDaBusca() throws Exception {
+        // Usuário com quase toda a tabela: os trigramas escolhem os candidatos, já filtrados por ele
+        String plano = planoDaBusca(USUARIO_FINANCEIRO);
+        
+        assertTrue(plano.contains("idx_solicitacoes_justificativa_trgm"), plano);
+        assertTrue(plano.contains("idx_solicitacoes_protocolo_trgm"), plano);
+        assertTrue(plano.contains("Filter: ((usuario_id = '2'::bigint) AND"), plano);
+        assertFalse(plano.contains("Seq Scan on solicitacoes c "), plano);
+    }
+    
+    @Test
+    void deveLimitarCandidatosAsSolicitacoesDoUsuario() throws Exception {
+        // Usuário com poucas solicitações: nenhum ramo percorre as linhas dos outros usuários
+        String plano = planoDaBusca(USUARIO_TI);
+        
+        assertFalse(plano.contains("_trgm"), plano);
+        assertFalse(plano.contains("Seq Scan on solicitacoes"), plano);
+        assertEquals(3, plano.split("Index Cond: \\(usuario_id = '1'::bigint\\)", -1).length - 1, plano);
+    }
+    
+    private String planoDaBusca(long usuarioId) throws NoSuchMethodException {
+        String sql = SolicitacaoRepository.class
+            .getMethod("buscarPorRelevancia", Long.class, String.class, String.class, int.class)
+            .getAnnotation(Query.class)
+            .value();
+        MapSqlParameterSource parametros = new MapSqlParameterSource()
+            .addValue("usuarioId", usuarioId)
+            .addValue("termo", "conciliação")
+            .addValue("padrao", "%conciliação%")
+            .addValue("limite", 10);
+        
+        return String.join("\n",
+            namedParameterJdbcTemplate.queryForList("EXPLAIN " + sql, parametros, String.class));
+    }
+}
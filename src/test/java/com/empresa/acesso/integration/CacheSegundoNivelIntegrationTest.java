@@ -0,0 +1,122 @@
+package com.empresa.acesso.integration;
+
+import com.empresa.acesso.entity.CatalogoVersao;
+import com.empresa.acesso.entity.Modulo;
+import com.empresa.acesso.repository.CatalogoVersaoRepository;
+import com.empresa.acesso.repository.ModuloRepository;
+import com.empresa.acesso.service.CatalogoModulos;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Sem @Transactional: o cache de segundo nível só guarda o que foi lido de dados já
+ * confirmados, então cada carga roda em uma transação própria.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class CacheSegundoNivelIntegrationTest {
+    
+    @Autowired
+    private ModuloRepository moduloRepository;
+    
+    @Autowired
+    private CatalogoVersaoRepository catalogoVersaoRepository;
+    
+    @Autowired
+    private CatalogoModulos catalogoModulos;
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    private Statistics statistics;
+    private Long moduloId;
+    
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        moduloId = moduloRepository.save(Modulo.builder()
+            .nome("Módulo em cache")
+            .descricao("Módulo para teste do cache de segundo nível")
+            .ativo(true)
+            .departamentosPermitidos(new HashSet<>(Set.of("TI", "RH")))
+            .modulosIncompativeis(new HashSet<>(Set.of(99L)))
+            .build()).getId();
+        catalogoVersaoRepository.save(new CatalogoVersao(CatalogoVersao.ID, 1L));
+        catalogoModulos.invalidar();
+    }
+    
+    @AfterEach
+    void tearDown() {
+        moduloRepository.deleteById(moduloId);
+        catalogoVersaoRepository.deleteById(CatalogoVersao.ID);
+        catalogoModulos.invalidar();
+    }
+    
+    @Test
+    void deveServirModuloEColecoesDoCacheAposPrimeiraCarga() {
+        // Entidade e as duas coleções de regras
+        assertEquals(3, comandosParaCarregarModulo());
+        assertEquals(0, comandosParaCarregarModulo());
+        
+        double taxaAcerto = meterRegistry.get("hibernate.cache.taxa.acerto")
+            .tag("regiao", Modulo.REGIAO_CACHE_DEPARTAMENTOS)
+            .gauge()
+            .value();
+        assertTrue(taxaAcerto > 0);
+    }
+    
+    @Test
+    void deveDescartarEntradasQuandoOutroNoAlterarCatalogo() {
+        catalogoModulos.snapshot();
+        assertEquals(Set.of("TI", "RH"), departamentos());
+        
+        // Alteração feita por outro nó, direto no banco: o trigger incrementa a versão
+        jdbcTemplate.update("INSERT INTO modulo_departamentos (modulo_id, departamento) VALUES (?, 'Financeiro')", moduloId);
+        catalogoVersaoRepository.save(new CatalogoVersao(CatalogoVersao.ID, 2L));
+        assertEquals(Set.of("TI", "RH"), departamentos());
+        
+        catalogoModulos.verificarVersao();
+        
+        assertEquals(Set.of("TI", "RH", "Financeiro"), departamentos());
+    }
+    
+    private long comandosParaCarregarModulo() {
+        statistics.clear();
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            Modulo modulo = moduloRepository.findById(moduloId).orElseThrow();
+            assertEquals(Set.of("TI", "RH"), modulo.getDepartamentosPermitidos());
+            assertEquals(Set.of(99L), modulo.getModulosIncompativeis());
+        });
+        return statistics.getPrepareStatementCount();
+    }
+    
+    private Set<String> departamentos() {
+        return new TransactionTemplate(transactionManager).execute(status ->
+            Set.copyOf(moduloRepository.findById(moduloId).orElseThrow().getDepartamentosPermitidos()));
+    }
+}
@@ -0,0 +1,127 @@
+package com.empresa.acesso.integration;
+
+import com.empresa.acesso.service.ExpiracaoSolicitacoes;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Varredura de expiração contra um PostgreSQL real: o lote usa CTEs que modificam dados e
+ * FOR UPDATE SKIP LOCKED, que o H2 não suporta.
+ */
+@SpringBootTest(properties = {
+    "expiracao.habilitada=false",
+    "expiracao.tamanho-lote=50",
+    "historico.materializacao.habilitada=false",
+    "direitos.sincronizacao.habilitada=false"
+})
+class ExpiracaoSolicitacoesPostgresTest {
+    
+    private static final long USUARIO_TI = 1L;
+    private static final long USUARIO_FINANCEIRO = 2L;
+    
+    private static EmbeddedPostgres postgres;
+    
+    @Autowired
+    private ExpiracaoSolicitacoes expiracaoSolicitacoes;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) throws IOException {
+        postgres = EmbeddedPostgres.start();
+        registry.add("spring.datasource.url", () -> postgres.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "postgres");
+    }
+    
+    @AfterAll
+    static void pararPostgres() throws IOException {
+        postgres.close();
+    }
+    
+    @Test
+    void deveExpirarVencidasRevogandoModulosERegistrandoHistorico() {
+        LocalDateTime agora = LocalDateTime.now();
+        long vencida = inserir("EXP-1", USUARIO_TI, agora.minusDays(1), 1, 2);
+        long vigente = inserir("EXP-2", USUARIO_TI, agora.plusDays(30), 3);
+        // Módulo 5 também concedido por uma solicitação vigente: continua com o usuário
+        long vencidaCompartilhada = inserir("EXP-3", USUARIO_TI, agora.minusDays(2), 5);
+        inserir("EXP-4", USUARIO_TI, agora.plusDays(10), 5);
+        jdbcTemplate.update("INSERT INTO usuario_modulos (usuario_id, modulo_id) VALUES (1, 1), (1, 2), (1, 3), (1, 5)");
+        
+        int expiradas = expiracaoSolicitacoes.expirarVencidas(agora);
+        
+        assertEquals(2, expiradas);
+        assertEquals("EXPIRADO", status(vencida));
+        assertEquals("EXPIRADO", status(vencidaCompartilhada));
+        assertEquals("ATIVO", status(vigente));
+        // A expiração não passa pelo Hibernate, mas muda o ETag do detalhe igual
+        assertEquals(List.of(1L, 0L), jdbcTemplate.queryForList(
+            "SELECT versao FROM solicitacoes WHERE id IN (?, ?) ORDER BY id", Long.class, vencida, vigente));
+        assertEquals(List.of(3L, 5L), jdbcTemplate.queryForList(
+            "SELECT modulo_id FROM usuario_modulos WHERE usuario_id = 1 ORDER BY modulo_id", Long.class));
+        assertEquals(List.of("Acesso expirado automaticamente"), jdbcTemplate.queryForList(
+            "SELECT descricao FROM historico_solicitacoes WHERE solicitacao_id = ?", String.class, vencida));
+        assertEquals(0, expiracaoSolicitacoes.expirarVencidas(agora));
+    }
+    
+    @Test
+    void deveProcessarCadaSolicitacaoUmaUnicaVezComVariosNosSimultaneos() throws Exception {
+        LocalDateTime agora = LocalDateTime.now();
+        jdbcTemplate.update("INSERT INTO solicitacoes (protocolo, usuario_id, justificativa, urgente, status, " +
+            "data_solicitacao, data_expiracao) " +
+            "SELECT 'CONC-' || n, ?, 'Solicitação vencida para teste de concorrência', false, 'ATIVO', " +
+            "       ? - INTERVAL '181 days', ? - n * INTERVAL '1 second' " +
+            "FROM generate_series(1, 1000) AS n", USUARIO_FINANCEIRO, agora, agora);
+        
+        List<Future<Integer>> nos = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(3)) {
+            for (int i = 0; i < 3; i++) {
+                nos.add(executor.submit(() -> expiracaoSolicitacoes.expirarVencidas(agora)));
+            }
+        }
+        int total = 0;
+        for (Future<Integer> no : nos) {
+            total += no.get();
+        }
+        
+        assertEquals(1000, total);
+        assertEquals(0, jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM solicitacoes WHERE protocolo LIKE 'CONC-%' AND status <> 'EXPIRADO'", Long.class));
+        assertEquals(1000, jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM historico_solicitacoes h JOIN solicitacoes s ON s.id = h.solicitacao_id " +
+            "WHERE s.protocolo LIKE 'CONC-%'", Long.class));
+    }
+    
+    private long inserir(String protocolo, long usuarioId, LocalDateTime dataExpiracao, long... moduloIds) {
+        Long id = jdbcTemplate.queryForObject("INSERT INTO solicitacoes " +
+            "(protocolo, usuario_id, justificativa, urgente, status, data_solicitacao, data_expiracao) " +
+            "VALUES (?, ?, 'Solicitação para teste de expiração', false, 'ATIVO', ?, ?) RETURNING id",
+            Long.class, protocolo, usuarioId, dataExpiracao.minusDays(180), dataExpiracao);
+        for (long moduloId : moduloIds) {
+            jdbcTemplate.update("INSERT INTO solicitacao_modulos (solicitacao_id, modulo_id) VALUES (?, ?)", id, moduloId);
+        }
+        return id;
+    }
+    
+    private String status(long solicitacaoId) {
+        return jdbcTemplate.queryForObject("SELECT status FROM solicitacoes WHERE id = ?", String.class, solicitacaoId);
+    }
+}
@@ -0,0 +1,139 @@
+package com.empresa.acesso.integration;
+
+import com.empresa.acesso.config.DataSourceConfig;
+import com.empresa.acesso.service.GeradorProtocolo;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Pool principal menor que o número de criações concorrentes, como sob carga
+@SpringBootTest(properties = {
+    "spring.datasource.hikari.maximum-pool-size=2",
+    "spring.datasource.hikari.connection-timeout=5000"
+})
+@ActiveProfiles("test")
+class GeradorProtocoloIntegrationTest {
+    
+    private static final int TAMANHO_BLOCO = 5;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Autowired
+    @Qualifier(DataSourceConfig.PROTOCOLO)
+    private DataSource protocoloDataSource;
+    
+    @Test
+    void deveGerarProtocolosUnicosEntreNosConcorrentes() throws Exception {
+        LocalDate hoje = LocalDate.now();
+        long valorInicial = ultimoValor(hoje);
+        
+        GeradorProtocolo no1 = novoGerador();
+        GeradorProtocolo no2 = novoGerador();
+        Set<String> protocolos = ConcurrentHashMap.newKeySet();
+        List<Future<?>> tarefas = new ArrayList<>();
+        
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            for (int i = 0; i < 8; i++) {
+                GeradorProtocolo gerador = i % 2 == 0 ? no1 : no2;
+                tarefas.add(executor.submit(() -> {
+                    for (int j = 0; j < 25; j++) {
+                        assertTrue(protocolos.add(gerador.gerar()));
+                    }
+                }));
+            }
+            for (Future<?> tarefa : tarefas) {
+                tarefa.get();
+            }
+        }
+        
+        String prefixo = "SOL-" + hoje.format(DateTimeFormatter.ofPattern("yyyyMMdd")) + "-";
+        assertEquals(200, protocolos.size());
+        assertTrue(protocolos.stream().allMatch(p -> p.startsWith(prefixo)));
+        // 200 números em blocos de 5: 40 reservas, nenhuma sobra
+        assertEquals(valorInicial + 200, ultimoValor(hoje));
+    }
+    
+    @Test
+    void deveReservarBlocosComTodasAsConexoesDoPoolPrincipalOcupadas() throws Exception {
+        GeradorProtocolo gerador = novoGerador();
+        TransactionTemplate transacao = new TransactionTemplate(transactionManager);
+        // Cada par de criações só chama o gerador com as duas conexões do pool principal em uso
+        CyclicBarrier conexoesOcupadas = new CyclicBarrier(2);
+        Set<String> protocolos = ConcurrentHashMap.newKeySet();
+        List<Future<?>> tarefas = new ArrayList<>();
+        
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            for (int i = 0; i < 8; i++) {
+                tarefas.add(executor.submit(() -> transacao.executeWithoutResult(status -> {
+                    jdbcTemplate.queryForObject("SELECT COUNT(*) FROM sequencias_protocolo", Long.class);
+                    try {
+                        conexoesOcupadas.await(10, TimeUnit.SECONDS);
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                    for (int j = 0; j < 10; j++) {
+                        assertTrue(protocolos.add(gerador.gerar()));
+                    }
+                })));
+            }
+            for (Future<?> tarefa : tarefas) {
+                tarefa.get(60, TimeUnit.SECONDS);
+            }
+        }
+        
+        assertEquals(80, protocolos.size());
+    }
+    
+    @Test
+    void deveReservarBancoApenasUmaVezPorBloco() {
+        LocalDate hoje = LocalDate.now();
+        GeradorProtocolo gerador = novoGerador();
+        
+        String primeiro = gerador.gerar();
+        long valorAposPrimeiraReserva = ultimoValor(hoje);
+        for (int i = 1; i < TAMANHO_BLOCO; i++) {
+            gerador.gerar();
+        }
+        
+        assertEquals(valorAposPrimeiraReserva, ultimoValor(hoje));
+        assertTrue(primeiro.endsWith(String.format("-%04d", valorAposPrimeiraReserva - TAMANHO_BLOCO + 1)));
+        
+        gerador.gerar();
+        assertEquals(valorAposPrimeiraReserva + TAMANHO_BLOCO, ultimoValor(hoje));
+    }
+    
+    private GeradorProtocolo novoGerador() {
+        return new GeradorProtocolo(protocoloDataSource, TAMANHO_BLOCO);
+    }
+    
+    private long ultimoValor(LocalDate data) {
+        return jdbcTemplate.queryForList(
+                "SELECT ultimo_valor FROM sequencias_protocolo WHERE data = ?", Long.class, data).stream()
+            .findFirst()
+            .orElse(0L);
+    }
+}
@@ -0,0 +1,157 @@
+package com.empresa.acesso.integration;
+
+import com.empresa.acesso.dto.HistoricoResponse;
+import com.empresa.acesso.dto.SolicitacaoDetalheResponse;
+import com.empresa.acesso.service.MaterializacaoHistorico;
+import com.empresa.acesso.service.SolicitacaoService;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Materialização do histórico contra um PostgreSQL real: o lote usa CTEs que modificam dados e
+ * FOR UPDATE SKIP LOCKED, que o H2 não suporta.
+ */
+@SpringBootTest(properties = {
+    "historico.materializacao.habilitada=false",
+    "historico.materializacao.tamanho-lote=50",
+    "direitos.sincronizacao.habilitada=false"
+})
+class MaterializacaoHistoricoPostgresTest {
+    
+    private static final long USUARIO_TI = 1L;
+    
+    private static EmbeddedPostgres postgres;
+    
+    @Autowired
+    private MaterializacaoHistorico materializacaoHistorico;
+    
+    @Autowired
+    private SolicitacaoService solicitacaoService;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) throws IOException {
+        postgres = EmbeddedPostgres.start();
+        registry.add("spring.datasource.url", () -> postgres.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "postgres");
+    }
+    
+    @AfterAll
+    static void pararPostgres() throws IOException {
+        postgres.close();
+    }
+    
+    @Test
+    void deveManterODetalheIgualAntesEDepoisDaMaterializacao() {
+        LocalDateTime inicio = LocalDateTime.now().minusMinutes(10);
+        long solicitacaoId = inserirSolicitacao("HIST-1");
+        jdbcTemplate.update("INSERT INTO historico_solicitacoes (solicitacao_id, descricao, data_hora) VALUES (?, ?, ?)",
+            solicitacaoId, "Solicitação importada", inicio);
+        inserirEvento(solicitacaoId, "APROVADA", null, inicio.plusMinutes(1));
+        inserirEvento(solicitacaoId, "CANCELADA", "Troca de área, não preciso mais", inicio.plusMinutes(2));
+        
+        List<HistoricoResponse> pendente = detalhe(solicitacaoId).getHistorico();
+        
+        assertEquals(List.of(
+            "Solicitação importada",
+            "Solicitação aprovada automaticamente",
+            "Solicitação cancelada: Troca de área, não preciso mais"),
+            pendente.stream().map(HistoricoResponse::getDescricao).toList());
+        
+        assertEquals(2, materializacaoHistorico.materializarPendentes());
+        
+        assertEquals(pendente, detalhe(solicitacaoId).getHistorico());
+        assertEquals(List.of(pendente.get(2), pendente.get(1)),
+            solicitacaoService.listarHistorico(solicitacaoId, USUARIO_TI, 0, 2).getContent());
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM eventos_solicitacao", Long.class));
+        assertEquals(3, jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM historico_solicitacoes WHERE solicitacao_id = ?", Long.class, solicitacaoId));
+        assertEquals(0, materializacaoHistorico.materializarPendentes());
+    }
+    
+    @Test
+    void deveManterAOrdemDeEventosNoMesmoInstante() {
+        LocalDateTime instante = LocalDateTime.now().minusMinutes(5);
+        long solicitacaoId = inserirSolicitacao("HIST-EMPATE");
+        // Sequências independentes: a do histórico à frente da dos eventos, como depois das expirações
+        jdbcTemplate.queryForObject("SELECT setval('historico_solicitacoes_id_seq', " +
+            "(SELECT last_value FROM eventos_solicitacao_id_seq) + 1000)", Long.class);
+        
+        inserirEvento(solicitacaoId, "APROVADA", null, instante);
+        assertEquals(1, materializacaoHistorico.materializarPendentes());
+        inserirEvento(solicitacaoId, "CANCELADA", "Troca de área", instante);
+        
+        List<HistoricoResponse> pendente = detalhe(solicitacaoId).getHistorico();
+        
+        assertEquals(List.of(
+            "Solicitação aprovada automaticamente",
+            "Solicitação cancelada: Troca de área"),
+            pendente.stream().map(HistoricoResponse::getDescricao).toList());
+        
+        assertEquals(1, materializacaoHistorico.materializarPendentes());
+        
+        assertEquals(pendente, detalhe(solicitacaoId).getHistorico());
+        assertEquals(List.of(pendente.get(1), pendente.get(0)),
+            solicitacaoService.listarHistorico(solicitacaoId, USUARIO_TI, 0, 2).getContent());
+    }
+    
+    @Test
+    void deveMaterializarCadaEventoUmaUnicaVezComVariosNosSimultaneos() throws Exception {
+        long solicitacaoId = inserirSolicitacao("HIST-CONC");
+        jdbcTemplate.update("INSERT INTO eventos_solicitacao (solicitacao_id, tipo, detalhe, data_hora) " +
+            "SELECT ?, 'NEGADA', 'Motivo ' || n, ? + n * INTERVAL '1 second' " +
+            "FROM generate_series(1, 1000) AS n", solicitacaoId, LocalDateTime.now());
+        
+        List<Future<Integer>> nos = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(3)) {
+            for (int i = 0; i < 3; i++) {
+                nos.add(executor.submit(() -> materializacaoHistorico.materializarPendentes()));
+            }
+        }
+        int total = 0;
+        for (Future<Integer> no : nos) {
+            total += no.get();
+        }
+        
+        assertEquals(1000, total);
+        assertEquals(1000, jdbcTemplate.queryForObject(
+            "SELECT COUNT(DISTINCT descricao) FROM historico_solicitacoes " +
+            "WHERE solicitacao_id = ? AND descricao LIKE 'Solicitação negada: Motivo %'", Long.class, solicitacaoId));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM eventos_solicitacao", Long.class));
+    }
+    
+    private SolicitacaoDetalheResponse detalhe(long solicitacaoId) {
+        return solicitacaoService.buscarDetalhes(solicitacaoId, USUARIO_TI);
+    }
+    
+    private long inserirSolicitacao(String protocolo) {
+        return jdbcTemplate.queryForObject("INSERT INTO solicitacoes " +
+            "(protocolo, usuario_id, justificativa, urgente, status, data_solicitacao) " +
+            "VALUES (?, ?, 'Solicitação para teste de histórico', false, 'CANCELADO', ?) RETURNING id",
+            Long.class, protocolo, USUARIO_TI, LocalDateTime.now());
+    }
+    
+    private void inserirEvento(long solicitacaoId, String tipo, String detalhe, LocalDateTime dataHora) {
+        jdbcTemplate.update("INSERT INTO eventos_solicitacao (solicitacao_id, tipo, detalhe, data_hora) VALUES (?, ?, ?, ?)",
+            solicitacaoId, tipo, detalhe, dataHora);
+    }
+}
@@ -0,0 +1,114 @@
+package com.empresa.acesso.integration;
+
+import com.empresa.acesso.service.DireitosUsuarios;
+import com.empresa.acesso.service.SincronizacaoDireitos;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Sincronização dos direitos entre nós contra um PostgreSQL real: as alterações são gravadas por
+ * triggers e lidas pelo id da transação, recursos que o H2 não tem. As gravações feitas aqui
+ * direto no banco fazem o papel de outro nó.
+ */
+@SpringBootTest(properties = {
+    "historico.materializacao.habilitada=false",
+    "direitos.sincronizacao.habilitada=false"
+})
+class SincronizacaoDireitosPostgresTest {
+    
+    private static final long USUARIO_TI = 1L;
+    
+    private static EmbeddedPostgres postgres;
+    
+    @Autowired
+    private SincronizacaoDireitos sincronizacaoDireitos;
+    
+    @Autowired
+    private DireitosUsuarios direitosUsuarios;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private DataSource dataSource;
+    
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) throws IOException {
+        postgres = EmbeddedPostgres.start();
+        registry.add("spring.datasource.url", () -> postgres.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "postgres");
+    }
+    
+    @AfterAll
+    static void pararPostgres() throws IOException {
+        postgres.close();
+    }
+    
+    @Test
+    void deveDescartarDireitosAlteradosPorOutroNo() {
+        sincronizacaoDireitos.sincronizar();
+        assertFalse(direitosUsuarios.buscar(USUARIO_TI).possui(6L));
+        
+        jdbcTemplate.update("INSERT INTO usuario_modulos (usuario_id, modulo_id) VALUES (?, 6)", USUARIO_TI);
+        
+        // Até a leitura das alterações, o nó segue com o que está em cache
+        assertFalse(direitosUsuarios.buscar(USUARIO_TI).possui(6L));
+        sincronizacaoDireitos.sincronizar();
+        assertTrue(direitosUsuarios.buscar(USUARIO_TI).possui(6L));
+        
+        jdbcTemplate.update("DELETE FROM usuario_modulos WHERE usuario_id = ? AND modulo_id = 6", USUARIO_TI);
+        sincronizacaoDireitos.sincronizar();
+        assertFalse(direitosUsuarios.buscar(USUARIO_TI).possui(6L));
+    }
+    
+    @Test
+    void naoDevePerderAlteracaoDeTransacaoAbertaDuranteALeitura() throws Exception {
+        sincronizacaoDireitos.sincronizar();
+        
+        try (Connection outroNo = dataSource.getConnection()) {
+            outroNo.setAutoCommit(false);
+            try (Statement statement = outroNo.createStatement()) {
+                statement.executeUpdate("INSERT INTO usuario_modulos (usuario_id, modulo_id) VALUES (1, 7)");
+            }
+            
+            // Leitura com a transação ainda aberta, e o cache carregado sem o módulo
+            sincronizacaoDireitos.sincronizar();
+            assertFalse(direitosUsuarios.buscar(USUARIO_TI).possui(7L));
+            
+            outroNo.commit();
+        }
+        
+        sincronizacaoDireitos.sincronizar();
+        assertTrue(direitosUsuarios.buscar(USUARIO_TI).possui(7L));
+        
+        jdbcTemplate.update("DELETE FROM usuario_modulos WHERE usuario_id = ? AND modulo_id = 7", USUARIO_TI);
+    }
+    
+    @Test
+    void deveRegistrarSoMudancaDeSituacaoOuDepartamentoDoUsuario() {
+        jdbcTemplate.update("DELETE FROM alteracoes_direitos");
+        
+        jdbcTemplate.update("UPDATE usuarios SET nome = nome, ativo = ativo, departamento = departamento WHERE id = ?",
+            USUARIO_TI);
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM alteracoes_direitos", Long.class));
+        
+        jdbcTemplate.update("UPDATE usuarios SET ativo = NOT ativo WHERE id = ?", USUARIO_TI);
+        jdbcTemplate.update("UPDATE usuarios SET ativo = NOT ativo WHERE id = ?", USUARIO_TI);
+        assertEquals(2, jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM alteracoes_direitos WHERE usuario_id = ?", Long.class, USUARIO_TI));
+    }
+}
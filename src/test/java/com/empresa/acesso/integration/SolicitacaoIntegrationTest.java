@@ -1,22 +1,56 @@
 package com.empresa.acesso.integration;
 
+import com.empresa.acesso.dto.CancelarSolicitacaoRequest;
 import com.empresa.acesso.dto.CriarSolicitacaoRequest;
+import com.empresa.acesso.dto.HistoricoResponse;
+import com.empresa.acesso.dto.ModuloSimpleResponse;
+import com.empresa.acesso.dto.PaginaCursorResponse;
+import com.empresa.acesso.dto.ResultadoSolicitacaoLoteResponse;
+import com.empresa.acesso.dto.SolicitacaoDetalheResponse;
+import com.empresa.acesso.dto.SolicitacaoResponse;
 import com.empresa.acesso.entity.Modulo;
+import com.empresa.acesso.entity.Solicitacao;
 import com.empresa.acesso.entity.Usuario;
+import com.empresa.acesso.entity.enums.StatusSolicitacao;
+import com.empresa.acesso.entity.enums.TipoEventoSolicitacao;
+import com.empresa.acesso.exception.BusinessException;
+import com.empresa.acesso.exception.ResourceNotFoundException;
+import com.empresa.acesso.exception.ServiceUnavailableException;
 import com.empresa.acesso.repository.ModuloRepository;
 import com.empresa.acesso.repository.SolicitacaoRepository;
 import com.empresa.acesso.repository.UsuarioRepository;
+import com.empresa.acesso.service.CatalogoModulos;
+import com.empresa.acesso.service.DireitosUsuarios;
+import com.empresa.acesso.service.ExportacaoSolicitacoes;
+import com.empresa.acesso.service.GeradorProtocolo;
 import com.empresa.acesso.service.SolicitacaoService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -40,6 +74,27 @@ class SolicitacaoIntegrationTest {
     @Autowired
     private PasswordEncoder passwordEncoder;
     
+    @Autowired
+    private GeradorProtocolo geradorProtocolo;
+    
+    @Autowired
+    private CatalogoModulos catalogoModulos;
+    
+    @Autowired
+    private ExportacaoSolicitacoes exportacaoSolicitacoes;
+    
+    @Autowired
+    private DireitosUsuarios direitosUsuarios;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
     private Usuario usuario;
     private Modulo modulo1;
     private Modulo modulo2;
@@ -77,6 +132,8 @@ class SolicitacaoIntegrationTest {
             .modulosIncompativeis(new HashSet<>())
             .build();
         modulo2 = moduloRepository.save(modulo2);
+        
+        catalogoModulos.invalidar();
     }
     
     @Test
@@ -87,13 +144,370 @@ class SolicitacaoIntegrationTest {
             .urgente(false)
             .build();
         
-        var response = solicitacaoService.criarSolicitacao(request, "teste@empresa.com");
+        var response = solicitacaoService.criarSolicitacao(request, usuario.getId());
         
         assertNotNull(response);
         assertTrue(response.getMensagem().contains("Solicitação criada com sucesso"));
         assertNotNull(response.getProtocolo());
         
+        entityManager.clear();
         Usuario usuarioAtualizado = usuarioRepository.findByEmail("teste@empresa.com").orElseThrow();
         assertEquals(2, usuarioAtualizado.getModulosAtivos().size());
     }
+    
+    @Test
+    void deveLerDireitosAtualizadosDentroDaTransacaoQueOsAlterou() {
+        CriarSolicitacaoRequest request = CriarSolicitacaoRequest.builder()
+            .moduloIds(Set.of(modulo1.getId()))
+            .justificativa("Preciso acessar estes módulos para realizar minhas atividades diárias de trabalho")
+            .urgente(false)
+            .build();
+        
+        var response = solicitacaoService.criarSolicitacao(request, usuario.getId());
+        assertTrue(direitosUsuarios.buscar(usuario.getId()).possui(modulo1.getId()));
+        
+        solicitacaoService.cancelarSolicitacao(response.getSolicitacaoId(),
+            CancelarSolicitacaoRequest.builder().motivo("Não preciso mais deste acesso").build(), usuario.getId());
+        assertFalse(direitosUsuarios.buscar(usuario.getId()).possui(modulo1.getId()));
+        
+        // O snapshot em cache, anterior às alterações, não é usado nesta transação
+        var novaResponse = solicitacaoService.criarSolicitacao(request, usuario.getId());
+        assertTrue(novaResponse.getMensagem().contains("Solicitação criada com sucesso"));
+    }
+    
+    @Test
+    void deveVerificarSolicitacoesAtivasComUmaUnicaConsulta() {
+        Set<Long> moduloIds = IntStream.rangeClosed(1, 10)
+            .mapToObj(i -> moduloRepository.save(Modulo.builder()
+                .nome("Módulo " + i)
+                .descricao("Módulo de teste " + i)
+                .ativo(true)
+                .departamentosPermitidos(Set.of("TI"))
+                .modulosIncompativeis(new HashSet<>())
+                .build()).getId())
+            .collect(Collectors.toSet());
+        entityManager.flush();
+        entityManager.clear();
+        // Catálogo em memória e bloco de protocolos já reservado, como na maioria das criações
+        catalogoModulos.invalidar();
+        catalogoModulos.snapshot();
+        geradorProtocolo.gerar();
+        
+        CriarSolicitacaoRequest request = CriarSolicitacaoRequest.builder()
+            .moduloIds(moduloIds)
+            .justificativa("Preciso acessar estes módulos para realizar minhas atividades diárias de trabalho")
+            .urgente(false)
+            .build();
+        
+        long blocosAntes = blocosDeIdsReservados();
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        
+        solicitacaoService.criarSolicitacao(request, usuario.getId());
+        entityManager.flush();
+        long comandos = statistics.getPrepareStatementCount();
+        
+        // Trava e direitos do usuário, lidos do banco, e uma única verificação de solicitações ativas;
+        // os módulos vêm do catálogo em memória
+        assertEquals(3, statistics.getQueryExecutionCount());
+        // 3 consultas e 3 inserts em batch (solicitação, evento de histórico e solicitacao_modulos), mais um
+        // nextval sempre que um bloco de ids acaba. usuario_modulos vai em um batch JDBC à parte
+        assertEquals(6 + blocosDeIdsReservados() - blocosAntes, comandos);
+        
+        BusinessException exception = assertThrows(BusinessException.class, () ->
+            solicitacaoService.criarSolicitacao(request, usuario.getId())
+        );
+        assertTrue(exception.getMessage().startsWith("Já existe solicitação ativa para o módulo"));
+    }
+    
+    @Test
+    void deveCriarSolicitacoesEmLoteComInsercoesJdbc() {
+        String justificativa = "Preciso acessar estes módulos para realizar minhas atividades diárias de trabalho";
+        List<CriarSolicitacaoRequest> requests = List.of(
+            CriarSolicitacaoRequest.builder().moduloIds(Set.of(modulo1.getId())).justificativa(justificativa).urgente(false).build(),
+            CriarSolicitacaoRequest.builder().moduloIds(Set.of(modulo1.getId())).justificativa(justificativa).urgente(false).build(),
+            CriarSolicitacaoRequest.builder().moduloIds(Set.of(modulo2.getId())).justificativa(justificativa).urgente(true).build()
+        );
+        
+        List<ResultadoSolicitacaoLoteResponse> resultados = solicitacaoService.criarSolicitacoesEmLote(requests, usuario.getId());
+        entityManager.clear();
+        
+        assertEquals(StatusSolicitacao.ATIVO, resultados.get(0).getStatus());
+        assertNull(resultados.get(1).getSolicitacaoId());
+        assertEquals(StatusSolicitacao.ATIVO, resultados.get(2).getStatus());
+        
+        Solicitacao segunda = solicitacaoRepository.findById(resultados.get(2).getSolicitacaoId()).orElseThrow();
+        assertEquals(resultados.get(2).getProtocolo(), segunda.getProtocolo());
+        assertTrue(segunda.getUrgente());
+        assertEquals(Set.of(modulo2.getId()), segunda.getModulos().stream().map(Modulo::getId).collect(Collectors.toSet()));
+        assertEquals(1, segunda.getEventos().size());
+        assertEquals(0L, segunda.getVersao());
+        
+        Usuario usuarioAtualizado = usuarioRepository.findByEmail("teste@empresa.com").orElseThrow();
+        assertEquals(Set.of(modulo1.getId(), modulo2.getId()),
+            usuarioAtualizado.getModulosAtivos().stream().map(Modulo::getId).collect(Collectors.toSet()));
+    }
+    
+    @Test
+    void devePercorrerListagemPorCursorSemRepetirOuPularSolicitacoes() {
+        LocalDateTime base = LocalDateTime.of(2024, 11, 18, 10, 0);
+        List<Solicitacao> salvas = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            // Pares de solicitações com a mesma data testam o desempate por id
+            Solicitacao solicitacao = solicitacaoRepository.save(Solicitacao.builder()
+                .protocolo("SOL-20241118-9" + i)
+                .usuario(usuario)
+                .modulos(new HashSet<>(Set.of(modulo1)))
+                .justificativa("Solicitação de teste para paginação por cursor")
+                .urgente(false)
+                .status(StatusSolicitacao.NEGADO)
+                .dataSolicitacao(base.plusMinutes(i / 2))
+                .build());
+            salvas.add(solicitacao);
+        }
+        entityManager.flush();
+        
+        List<Long> esperados = salvas.stream()
+            .sorted(Comparator.comparing(Solicitacao::getDataSolicitacao)
+                .thenComparing(Solicitacao::getId)
+                .reversed())
+            .map(Solicitacao::getId)
+            .toList();
+        
+        List<Long> recebidos = new ArrayList<>();
+        String cursor = null;
+        int paginas = 0;
+        do {
+            PaginaCursorResponse<SolicitacaoResponse> pagina = solicitacaoService.listarSolicitacoesPorCursor(
+                usuario.getId(), null, null, null, null, null, cursor, 3);
+            pagina.getConteudo().forEach(s -> recebidos.add(s.getId()));
+            cursor = pagina.getProximoCursor();
+            assertEquals(cursor != null, pagina.isPossuiProxima());
+            paginas++;
+        } while (cursor != null);
+        
+        assertEquals(3, paginas);
+        assertEquals(esperados, recebidos);
+    }
+    
+    @Test
+    void deveListarPaginaComNumeroFixoDeConsultasIndependenteDoTamanho() {
+        salvarSolicitacoes(25);
+        
+        long consultasPagina5 = contarConsultas(() -> {
+            Page<SolicitacaoResponse> pagina = solicitacaoService.listarSolicitacoes(
+                usuario.getId(), null, null, null, null, null, 0, 5);
+            assertTrue(pagina.getContent().stream().allMatch(s -> s.getModulos().size() == 2));
+        });
+        long consultasPagina20 = contarConsultas(() -> {
+            Page<SolicitacaoResponse> pagina = solicitacaoService.listarSolicitacoes(
+                usuario.getId(), null, null, null, null, null, 0, 20);
+            assertTrue(pagina.getContent().stream().allMatch(s -> s.getModulos().size() == 2));
+        });
+        long consultasCursor20 = contarConsultas(() -> solicitacaoService.listarSolicitacoesPorCursor(
+            usuario.getId(), null, null, null, null, null, null, 20));
+        
+        // Página e contagem; os módulos vêm agregados na própria consulta da página
+        assertEquals(2, consultasPagina5);
+        assertEquals(2, consultasPagina20);
+        assertEquals(1, consultasCursor20);
+    }
+    
+    @Test
+    void deveCarregarDetalheComNumeroFixoDeConsultas() {
+        Solicitacao solicitacao = salvarSolicitacoes(1).get(0);
+        
+        long consultas = contarConsultas(() -> {
+            SolicitacaoDetalheResponse detalhe = solicitacaoService.buscarDetalhes(solicitacao.getId(), usuario.getId());
+            assertEquals(2, detalhe.getModulos().size());
+            assertEquals(2, detalhe.getHistorico().size());
+            assertTrue(detalhe.isHistoricoCompleto());
+        });
+        
+        // Solicitação com módulos e histórico
+        assertEquals(2, consultas);
+        assertEquals(0, entityManager.getEntityManagerFactory().unwrap(SessionFactory.class)
+            .getStatistics().getEntityLoadCount());
+    }
+    
+    @Test
+    void deveLimitarHistoricoDoDetalheEPaginarOHistoricoCompleto() {
+        Solicitacao solicitacao = salvarSolicitacoes(1).get(0);
+        // Depois dos dois eventos registrados ao salvar
+        LocalDateTime base = LocalDateTime.now().plusHours(1);
+        for (int i = 1; i <= 12; i++) {
+            solicitacao.registrarEvento(TipoEventoSolicitacao.CANCELADA, "Evento " + i);
+            solicitacao.getEventos().get(solicitacao.getEventos().size() - 1).setDataHora(base.plusMinutes(i));
+        }
+        entityManager.flush();
+        entityManager.clear();
+        
+        SolicitacaoDetalheResponse detalhe = solicitacaoService.buscarDetalhes(solicitacao.getId(), usuario.getId());
+        
+        // Os 10 mais recentes dos 14 eventos, em ordem cronológica
+        assertFalse(detalhe.isHistoricoCompleto());
+        assertEquals(10, detalhe.getHistorico().size());
+        assertEquals("Solicitação cancelada: Evento 3", detalhe.getHistorico().get(0).getDescricao());
+        assertEquals("Solicitação cancelada: Evento 12", detalhe.getHistorico().get(9).getDescricao());
+        
+        Page<HistoricoResponse> primeira = solicitacaoService.listarHistorico(solicitacao.getId(), usuario.getId(), 0, 5);
+        Page<HistoricoResponse> ultima = solicitacaoService.listarHistorico(solicitacao.getId(), usuario.getId(), 2, 5);
+        
+        assertEquals(14, primeira.getTotalElements());
+        assertEquals(3, primeira.getTotalPages());
+        assertEquals("Solicitação cancelada: Evento 12", primeira.getContent().get(0).getDescricao());
+        assertEquals("Solicitação cancelada: Evento 8", primeira.getContent().get(4).getDescricao());
+        assertEquals(4, ultima.getContent().size());
+        assertEquals("Solicitação cancelada: Evento 1", ultima.getContent().get(1).getDescricao());
+        
+        assertThrows(ResourceNotFoundException.class, () ->
+            solicitacaoService.listarHistorico(solicitacao.getId(), usuario.getId() + 1, 0, 5));
+        assertThrows(BusinessException.class, () ->
+            solicitacaoService.listarHistorico(solicitacao.getId(), usuario.getId(), 0, 0));
+    }
+    
+    @Test
+    void deveCalcularEtagDoDetalheSemCarregarASolicitacaoEMudarComAAlteracao() {
+        var criada = solicitacaoService.criarSolicitacao(CriarSolicitacaoRequest.builder()
+            .moduloIds(Set.of(modulo1.getId()))
+            .justificativa("Preciso acessar estes módulos para realizar minhas atividades diárias de trabalho")
+            .urgente(false)
+            .build(), usuario.getId());
+        entityManager.flush();
+        
+        List<String> etags = new ArrayList<>();
+        long consultas = contarConsultas(() ->
+            etags.add(solicitacaoService.etagDetalhes(criada.getSolicitacaoId(), usuario.getId())));
+        
+        assertEquals(1, consultas);
+        assertEquals(0, entityManager.getEntityManagerFactory().unwrap(SessionFactory.class)
+            .getStatistics().getEntityLoadCount());
+        assertEquals(etags.get(0), solicitacaoService.etagDetalhes(criada.getSolicitacaoId(), usuario.getId()));
+        
+        solicitacaoService.cancelarSolicitacao(criada.getSolicitacaoId(),
+            CancelarSolicitacaoRequest.builder().motivo("Não preciso mais deste acesso").build(), usuario.getId());
+        entityManager.flush();
+        
+        assertNotEquals(etags.get(0), solicitacaoService.etagDetalhes(criada.getSolicitacaoId(), usuario.getId()));
+        assertThrows(ResourceNotFoundException.class, () ->
+            solicitacaoService.etagDetalhes(criada.getSolicitacaoId(), usuario.getId() + 1));
+    }
+    
+    @Test
+    void deveExportarTodasAsSolicitacoesEmNdjson() throws Exception {
+        List<Solicitacao> salvas = salvarSolicitacoes(25);
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        
+        exportacaoSolicitacoes.exportar(usuario.getId(), null, null, null, null, null,
+            ExportacaoSolicitacoes.Formato.NDJSON, saida);
+        
+        List<String> linhas = saida.toString(StandardCharsets.UTF_8).lines().toList();
+        assertEquals(25, linhas.size());
+        assertTrue(linhas.stream().allMatch(linha -> linha.startsWith("{\"id\":")));
+        SolicitacaoResponse primeira = objectMapper.readValue(linhas.get(0), SolicitacaoResponse.class);
+        assertEquals(salvas.get(24).getId(), primeira.getId());
+        assertEquals(List.of(modulo1.getId(), modulo2.getId()),
+            primeira.getModulos().stream().map(ModuloSimpleResponse::getId).toList());
+    }
+    
+    @Test
+    void deveExportarEmPaginasLimitandoExportacoesSimultaneas() throws Exception {
+        List<Solicitacao> salvas = salvarSolicitacoes(25);
+        ExportacaoSolicitacoes exportacao = new ExportacaoSolicitacoes(
+            namedParameterJdbcTemplate, objectMapper, 10, 1, Duration.ofMinutes(1));
+        
+        StreamingResponseBody corpo = exportacao.iniciar(usuario.getId(), null, null, null, null, null,
+            ExportacaoSolicitacoes.Formato.NDJSON);
+        assertThrows(ServiceUnavailableException.class, () -> exportacao.iniciar(
+            usuario.getId(), null, null, null, null, null, ExportacaoSolicitacoes.Formato.NDJSON));
+        
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        corpo.writeTo(saida);
+        
+        // Três páginas de 10, na ordem da listagem, sem repetir nem pular linhas
+        List<Long> ids = new ArrayList<>();
+        for (String linha : saida.toString(StandardCharsets.UTF_8).lines().toList()) {
+            ids.add(objectMapper.readValue(linha, SolicitacaoResponse.class).getId());
+        }
+        assertEquals(salvas.stream().map(Solicitacao::getId).sorted(Comparator.reverseOrder()).toList(), ids);
+        // Terminada a exportação, a vaga é liberada
+        ExportacaoSolicitacoes.Exportacao naoEscrita = exportacao.iniciar(usuario.getId(), null, null, null,
+            null, null, ExportacaoSolicitacoes.Formato.CSV);
+        
+        // Sem o corpo escrito, a vaga volta pelo fim da requisição, uma única vez
+        naoEscrita.liberar();
+        naoEscrita.liberar();
+        assertNotNull(exportacao.iniciar(usuario.getId(), null, null, null, null, null,
+            ExportacaoSolicitacoes.Formato.CSV));
+        assertThrows(ServiceUnavailableException.class, () -> exportacao.iniciar(
+            usuario.getId(), null, null, null, null, null, ExportacaoSolicitacoes.Formato.CSV));
+    }
+    
+    @Test
+    void deveExportarCsvAplicandoFiltrosEEscapandoCampos() throws Exception {
+        salvarSolicitacoes(3);
+        solicitacaoRepository.save(Solicitacao.builder()
+            .protocolo("SOL-20241118-7001")
+            .usuario(usuario)
+            .modulos(new HashSet<>(Set.of(modulo1)))
+            .justificativa("Acesso para fechamento, conferência de \"notas\" e relatórios")
+            .urgente(true)
+            .status(StatusSolicitacao.ATIVO)
+            .dataSolicitacao(LocalDateTime.of(2024, 11, 19, 9, 0))
+            .build());
+        entityManager.flush();
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        
+        exportacaoSolicitacoes.exportar(usuario.getId(), null, StatusSolicitacao.ATIVO, null, null, null,
+            ExportacaoSolicitacoes.Formato.CSV, saida);
+        
+        List<String> linhas = saida.toString(StandardCharsets.UTF_8).lines().toList();
+        assertEquals(2, linhas.size());
+        assertTrue(linhas.get(0).startsWith("id,protocolo,status"));
+        assertTrue(linhas.get(1).endsWith(",SOL-20241118-7001,ATIVO,true,2024-11-19T09:00,,Portal,"
+            + "\"Acesso para fechamento, conferência de \"\"notas\"\" e relatórios\",,"));
+    }
+    
+    @Test
+    void deveRejeitarCursorInvalido() {
+        assertThrows(BusinessException.class, () -> solicitacaoService.listarSolicitacoesPorCursor(
+            usuario.getId(), null, null, null, null, null, "nao-e-um-cursor", 10));
+    }
+    
+    private List<Solicitacao> salvarSolicitacoes(int quantidade) {
+        LocalDateTime base = LocalDateTime.of(2024, 11, 18, 10, 0);
+        List<Solicitacao> salvas = new ArrayList<>();
+        for (int i = 0; i < quantidade; i++) {
+            Solicitacao solicitacao = Solicitacao.builder()
+                .protocolo("SOL-20241118-8" + i)
+                .usuario(usuario)
+                .modulos(new HashSet<>(Set.of(modulo1, modulo2)))
+                .justificativa("Solicitação de teste para contagem de consultas")
+                .urgente(false)
+                .status(StatusSolicitacao.NEGADO)
+                .dataSolicitacao(base.plusMinutes(i))
+                .build();
+            solicitacao.registrarEvento(TipoEventoSolicitacao.APROVADA, null);
+            solicitacao.registrarEvento(TipoEventoSolicitacao.CANCELADA, "Teste");
+            salvas.add(solicitacaoRepository.save(solicitacao));
+        }
+        entityManager.flush();
+        return salvas;
+    }
+    
+    // Executa com o contexto de persistência vazio, como em uma requisição nova
+    // Cada nextval avança a sequência em um bloco inteiro de 50 ids
+    private long blocosDeIdsReservados() {
+        Number valores = (Number) entityManager.createNativeQuery("SELECT SUM(BASE_VALUE) FROM INFORMATION_SCHEMA.SEQUENCES " +
+            "WHERE SEQUENCE_NAME IN ('SOLICITACOES_ID_SEQ', 'EVENTOS_SOLICITACAO_ID_SEQ')").getSingleResult();
+        return valores.longValue() / 50;
+    }
+    
+    private long contarConsultas(Runnable acao) {
+        entityManager.clear();
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        acao.run();
+        return statistics.getPrepareStatementCount();
+    }
 }
@@ -0,0 +1,37 @@
+package com.empresa.acesso.security;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveBCryptPasswordEncoderTest {
+    
+    @Test
+    void naoDeveAtualizarHashComMesmoCusto() {
+        AdaptiveBCryptPasswordEncoder encoder = new AdaptiveBCryptPasswordEncoder(4);
+        String hash = encoder.encode("senha123");
+        
+        assertFalse(encoder.upgradeEncoding(hash));
+        assertTrue(encoder.matches("senha123", hash));
+    }
+    
+    @Test
+    void deveAtualizarHashComCustoDiferente() {
+        String hashCusto5 = new AdaptiveBCryptPasswordEncoder(5).encode("senha123");
+        String hashCusto4 = new AdaptiveBCryptPasswordEncoder(4).encode("senha123");
+        
+        AdaptiveBCryptPasswordEncoder encoder = new AdaptiveBCryptPasswordEncoder(4);
+        
+        assertTrue(encoder.upgradeEncoding(hashCusto5));
+        assertFalse(encoder.upgradeEncoding(hashCusto4));
+        assertTrue(new AdaptiveBCryptPasswordEncoder(6).upgradeEncoding(hashCusto5));
+    }
+    
+    @Test
+    void naoDeveAtualizarHashInvalido() {
+        AdaptiveBCryptPasswordEncoder encoder = new AdaptiveBCryptPasswordEncoder(10);
+        
+        assertFalse(encoder.upgradeEncoding(null));
+        assertFalse(encoder.upgradeEncoding("texto-sem-formato"));
+    }
+}
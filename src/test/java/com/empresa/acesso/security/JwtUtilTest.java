@@ -1,10 +1,10 @@
 package com.empresa.acesso.security;
 
+import io.jsonwebtoken.JwtException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.test.util.ReflectionTestUtils;
 
 import java.util.ArrayList;
 
@@ -17,9 +17,7 @@ class JwtUtilTest {
     
     @BeforeEach
     void setUp() {
-        jwtUtil = new JwtUtil();
-        ReflectionTestUtils.setField(jwtUtil, "secret", "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970");
-        ReflectionTestUtils.setField(jwtUtil, "expiration", 900000L);
+        jwtUtil = new JwtUtil("404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970", 900000L);
         
         userDetails = new User("teste@empresa.com", "password", new ArrayList<>());
     }
@@ -66,4 +64,45 @@ class JwtUtilTest {
         assertNotNull(expiration);
         assertTrue(expiration.getTime() > System.currentTimeMillis());
     }
+    
+    @Test
+    void deveEmbutirDadosDoUsuarioNoToken() {
+        UsuarioAutenticado usuario = UsuarioAutenticado.builder()
+            .id(7L)
+            .email("teste@empresa.com")
+            .senha("password")
+            .departamento("TI")
+            .ativo(true)
+            .build();
+        
+        String token = jwtUtil.generateToken(usuario);
+        TokenClaims claims = jwtUtil.validateAndParse(token);
+        UsuarioAutenticado extraido = claims.toUsuarioAutenticado();
+        
+        assertTrue(claims.possuiDadosUsuario());
+        assertFalse(claims.isExpirado());
+        assertEquals(7L, extraido.getId());
+        assertEquals("teste@empresa.com", extraido.getUsername());
+        assertEquals("TI", extraido.getDepartamento());
+        assertTrue(extraido.isAtivo());
+        assertNull(extraido.getPassword());
+    }
+    
+    @Test
+    void deveRetornarNuloParaTokenSemDadosDoUsuario() {
+        String token = jwtUtil.generateToken(userDetails);
+        
+        TokenClaims claims = jwtUtil.validateAndParse(token);
+        
+        assertFalse(claims.possuiDadosUsuario());
+        assertEquals("teste@empresa.com", claims.getEmail());
+    }
+    
+    @Test
+    void deveRejeitarTokenComAssinaturaInvalida() {
+        JwtUtil outraChave = new JwtUtil("6B5970404E635266556A586E3272357538782F413F4428472B4B625064536756", 900000L);
+        String token = outraChave.generateToken(userDetails);
+        
+        assertThrows(JwtException.class, () -> jwtUtil.validateAndParse(token));
+    }
 }
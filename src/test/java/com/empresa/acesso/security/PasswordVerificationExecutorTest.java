@@ -0,0 +1,81 @@
+package com.empresa.acesso.security;
+
+import com.empresa.acesso.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PasswordVerificationExecutorTest {
+    
+    @Mock
+    private AuthenticationManager authenticationManager;
+    
+    private PasswordVerificationExecutor executor;
+    
+    @AfterEach
+    void tearDown() {
+        executor.destroy();
+    }
+    
+    @Test
+    void deveAutenticarEmThreadDoPool() {
+        executor = new PasswordVerificationExecutor(authenticationManager, new SimpleMeterRegistry(), 1, 1, 5000);
+        Authentication autenticado = new UsernamePasswordAuthenticationToken("teste@empresa.com", null);
+        when(authenticationManager.authenticate(any())).thenAnswer(invocation -> {
+            assertTrue(Thread.currentThread().getName().startsWith("login-bcrypt-"));
+            return autenticado;
+        });
+        
+        Authentication resultado = executor.authenticate(
+            new UsernamePasswordAuthenticationToken("teste@empresa.com", "senha123"));
+        
+        assertSame(autenticado, resultado);
+    }
+    
+    @Test
+    void devePropagarFalhaDeAutenticacao() {
+        executor = new PasswordVerificationExecutor(authenticationManager, new SimpleMeterRegistry(), 1, 1, 5000);
+        when(authenticationManager.authenticate(any())).thenThrow(new BadCredentialsException("Credenciais inválidas"));
+        
+        assertThrows(BadCredentialsException.class, () -> executor.authenticate(
+            new UsernamePasswordAuthenticationToken("teste@empresa.com", "errada")));
+    }
+    
+    @Test
+    void deveRejeitarQuandoPoolEstiverSaturado() throws Exception {
+        executor = new PasswordVerificationExecutor(authenticationManager, new SimpleMeterRegistry(), 1, 0, 5000);
+        CountDownLatch emExecucao = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        when(authenticationManager.authenticate(any())).thenAnswer(invocation -> {
+            emExecucao.countDown();
+            liberar.await(5, TimeUnit.SECONDS);
+            return invocation.getArgument(0);
+        });
+        
+        CompletableFuture<Authentication> primeiro = CompletableFuture.supplyAsync(() -> executor.authenticate(
+            new UsernamePasswordAuthenticationToken("primeiro@empresa.com", "senha123")));
+        assertTrue(emExecucao.await(5, TimeUnit.SECONDS));
+        
+        assertThrows(ServiceUnavailableException.class, () -> executor.authenticate(
+            new UsernamePasswordAuthenticationToken("segundo@empresa.com", "senha123")));
+        
+        liberar.countDown();
+        assertNotNull(primeiro.get(5, TimeUnit.SECONDS));
+    }
+}
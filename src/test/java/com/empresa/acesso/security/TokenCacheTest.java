@@ -0,0 +1,63 @@
+package com.empresa.acesso.security;
+
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.ArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class TokenCacheTest {
+    
+    private JwtUtil jwtUtil;
+    private MeterRegistry meterRegistry;
+    private String token;
+    
+    @BeforeEach
+    void setUp() {
+        jwtUtil = spy(new JwtUtil("404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970", 900000L));
+        meterRegistry = new SimpleMeterRegistry();
+        token = jwtUtil.generateToken(new User("teste@empresa.com", "password", new ArrayList<>()));
+    }
+    
+    @Test
+    void deveVerificarTokenApenasUmaVez() {
+        TokenCache tokenCache = new TokenCache(jwtUtil, meterRegistry, true, 100);
+        
+        TokenClaims primeira = tokenCache.validateAndParse(token);
+        TokenClaims segunda = tokenCache.validateAndParse(token);
+        
+        assertSame(primeira, segunda);
+        verify(jwtUtil, times(1)).validateAndParse(token);
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "jwt.tokens").tag("result", "hit")
+            .functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "jwt.tokens").tag("result", "miss")
+            .functionCounter().count());
+    }
+    
+    @Test
+    void deveVerificarSempreQuandoDesabilitado() {
+        TokenCache tokenCache = new TokenCache(jwtUtil, meterRegistry, false, 100);
+        
+        tokenCache.validateAndParse(token);
+        tokenCache.validateAndParse(token);
+        
+        verify(jwtUtil, times(2)).validateAndParse(token);
+    }
+    
+    @Test
+    void naoDeveArmazenarTokenInvalido() {
+        TokenCache tokenCache = new TokenCache(jwtUtil, meterRegistry, true, 100);
+        String tokenAdulterado = token.substring(0, token.length() - 2) + "xx";
+        
+        assertThrows(JwtException.class, () -> tokenCache.validateAndParse(tokenAdulterado));
+        assertThrows(JwtException.class, () -> tokenCache.validateAndParse(tokenAdulterado));
+        
+        verify(jwtUtil, times(2)).validateAndParse(tokenAdulterado);
+    }
+}
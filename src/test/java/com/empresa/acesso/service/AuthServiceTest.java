@@ -7,13 +7,13 @@ import com.empresa.acesso.entity.RefreshToken;
 import com.empresa.acesso.entity.Usuario;
 import com.empresa.acesso.repository.UsuarioRepository;
 import com.empresa.acesso.security.JwtUtil;
+import com.empresa.acesso.security.PasswordVerificationExecutor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -33,7 +33,7 @@ import static org.mockito.Mockito.*;
 class AuthServiceTest {
     
     @Mock
-    private AuthenticationManager authenticationManager;
+    private PasswordVerificationExecutor passwordVerificationExecutor;
     
     @Mock
     private JwtUtil jwtUtil;
@@ -84,7 +84,7 @@ class AuthServiceTest {
             .dataExpiracao(LocalDateTime.now().plusDays(1))
             .build();
         
-        when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
+        when(passwordVerificationExecutor.authenticate(any(UsernamePasswordAuthenticationToken.class)))
             .thenReturn(null);
         when(userDetailsService.loadUserByUsername(eq("teste@empresa.com")))
             .thenReturn(userDetails);
@@ -103,7 +103,7 @@ class AuthServiceTest {
         assertEquals("Bearer", response.getTokenType());
         assertEquals(900L, response.getExpiresIn());
         
-        verify(authenticationManager).authenticate(any(UsernamePasswordAuthenticationToken.class));
+        verify(passwordVerificationExecutor).authenticate(any(UsernamePasswordAuthenticationToken.class));
         verify(userDetailsService).loadUserByUsername(eq("teste@empresa.com"));
         verify(jwtUtil).generateToken(eq(userDetails));
         verify(refreshTokenService).createRefreshToken(eq(1L));
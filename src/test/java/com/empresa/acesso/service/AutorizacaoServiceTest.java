@@ -0,0 +1,98 @@
+package com.empresa.acesso.service;
+
+import com.empresa.acesso.dto.ConsultaAcessoRequest;
+import com.empresa.acesso.dto.DecisaoAcessoResponse;
+import com.empresa.acesso.entity.Modulo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AutorizacaoServiceTest {
+    
+    @Mock
+    private DireitosUsuarios direitosUsuarios;
+    
+    @Mock
+    private CatalogoModulos catalogoModulos;
+    
+    @InjectMocks
+    private AutorizacaoService autorizacaoService;
+    
+    @BeforeEach
+    void setUp() {
+        when(catalogoModulos.snapshot()).thenReturn(CatalogoSnapshot.de(1L, List.of(
+            modulo(1L, true),
+            modulo(2L, true),
+            modulo(3L, false))));
+    }
+    
+    @Test
+    void devePermitirApenasModulosAtivosDoUsuario() {
+        when(direitosUsuarios.buscarSeExistir(1L)).thenReturn(DireitosUsuario.de(1L, "TI", true, new long[] {1L, 3L}));
+        
+        assertTrue(autorizacaoService.possuiAcesso(1L, 1L));
+        assertFalse(autorizacaoService.possuiAcesso(1L, 2L));
+        // Concedido ao usuário, mas desativado no catálogo
+        assertFalse(autorizacaoService.possuiAcesso(1L, 3L));
+        assertFalse(autorizacaoService.possuiAcesso(1L, 999L));
+    }
+    
+    @Test
+    void deveNegarUsuarioInativoOuInexistente() {
+        when(direitosUsuarios.buscarSeExistir(1L)).thenReturn(DireitosUsuario.de(1L, "TI", false, new long[] {1L}));
+        when(direitosUsuarios.buscarSeExistir(999L)).thenReturn(null);
+        
+        assertFalse(autorizacaoService.possuiAcesso(1L, 1L));
+        assertFalse(autorizacaoService.possuiAcesso(999L, 1L));
+    }
+    
+    @Test
+    void deveResponderLoteNaOrdemBuscandoOsDireitosDeTodosOsUsuariosDeUmaVez() {
+        when(direitosUsuarios.buscarTodos(Set.of(1L, 2L, 999L))).thenReturn(Map.of(
+            1L, DireitosUsuario.de(1L, "TI", true, new long[] {1L}),
+            2L, DireitosUsuario.de(2L, "RH", true, new long[] {2L})));
+        
+        List<DecisaoAcessoResponse> decisoes = autorizacaoService.verificar(List.of(
+            consulta(1L, 1L),
+            consulta(2L, 1L),
+            consulta(1L, 2L),
+            consulta(999L, 1L),
+            consulta(2L, 2L)));
+        
+        assertEquals(List.of(true, false, false, false, true),
+            decisoes.stream().map(DecisaoAcessoResponse::isPermitido).toList());
+        assertEquals(2L, decisoes.get(4).getUsuarioId());
+        assertEquals(2L, decisoes.get(4).getModuloId());
+        verify(direitosUsuarios, times(1)).buscarTodos(any());
+        verify(direitosUsuarios, never()).buscarSeExistir(any());
+        verify(catalogoModulos, times(1)).snapshot();
+    }
+    
+    private ConsultaAcessoRequest consulta(Long usuarioId, Long moduloId) {
+        return ConsultaAcessoRequest.builder().usuarioId(usuarioId).moduloId(moduloId).build();
+    }
+    
+    private Modulo modulo(Long id, boolean ativo) {
+        return Modulo.builder()
+            .id(id)
+            .nome("Módulo " + id)
+            .descricao("Módulo " + id)
+            .ativo(ativo)
+            .departamentosPermitidos(new HashSet<>(Set.of("TI", "RH")))
+            .modulosIncompativeis(new HashSet<>())
+            .build();
+    }
+}
@@ -0,0 +1,121 @@
+package com.empresa.acesso.service;
+
+import com.empresa.acesso.entity.CatalogoVersao;
+import com.empresa.acesso.entity.Modulo;
+import com.empresa.acesso.repository.CatalogoVersaoRepository;
+import com.empresa.acesso.repository.ModuloRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CatalogoModulosTest {
+    
+    @Mock
+    private ModuloRepository moduloRepository;
+    
+    @Mock
+    private CatalogoVersaoRepository catalogoVersaoRepository;
+    
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    
+    @Mock
+    private EntityManagerFactory entityManagerFactory;
+    
+    private CatalogoModulos catalogoModulos;
+    private Modulo modulo;
+    
+    @BeforeEach
+    void setUp() {
+        catalogoModulos = new CatalogoModulos(moduloRepository, catalogoVersaoRepository, transactionManager, entityManagerFactory);
+        modulo = Modulo.builder()
+            .id(1L)
+            .nome("Portal")
+            .descricao("Portal do Colaborador")
+            .ativo(true)
+            .departamentosPermitidos(new HashSet<>(Set.of("TI")))
+            .modulosIncompativeis(new HashSet<>())
+            .build();
+    }
+    
+    @Test
+    void deveCarregarCatalogoUmaUnicaVez() {
+        versao(1L);
+        when(moduloRepository.findAllComRegras()).thenReturn(List.of(modulo));
+        
+        CatalogoSnapshot primeiro = catalogoModulos.snapshot();
+        CatalogoSnapshot segundo = catalogoModulos.snapshot();
+        catalogoModulos.verificarVersao();
+        
+        assertSame(primeiro, segundo);
+        assertSame(primeiro, catalogoModulos.snapshot());
+        assertEquals(1L, primeiro.getVersao());
+        assertEquals("Portal", primeiro.buscar(1L).orElseThrow().getNome());
+        verify(moduloRepository, times(1)).findAllComRegras();
+    }
+    
+    @Test
+    void deveRecarregarQuandoVersaoMudar() {
+        versao(1L);
+        when(moduloRepository.findAllComRegras()).thenReturn(List.of(modulo));
+        CatalogoSnapshot anterior = catalogoModulos.snapshot();
+        
+        Cache cache = cacheDeSegundoNivel();
+        
+        modulo.getDepartamentosPermitidos().add("RH");
+        versao(2L);
+        catalogoModulos.verificarVersao();
+        
+        CatalogoSnapshot atual = catalogoModulos.snapshot();
+        assertEquals(2L, atual.getVersao());
+        assertEquals(Set.of("TI", "RH"), atual.buscar(1L).orElseThrow().getDepartamentosPermitidos());
+        // Mesma ordem em qualquer nó, independente da ordem de leitura
+        assertEquals(List.of("RH", "TI"), List.copyOf(atual.buscar(1L).orElseThrow().getDepartamentosPermitidos()));
+        assertEquals(Set.of("TI"), anterior.buscar(1L).orElseThrow().getDepartamentosPermitidos());
+        // A versão nova também descarta o cache de segundo nível local do nó
+        for (String regiao : CatalogoModulos.REGIOES_CACHE) {
+            verify(cache).evictRegion(regiao);
+        }
+    }
+    
+    @Test
+    void deveRecarregarAposInvalidar() {
+        versao(1L);
+        when(moduloRepository.findAllComRegras()).thenReturn(List.of(modulo));
+        CatalogoSnapshot anterior = catalogoModulos.snapshot();
+        cacheDeSegundoNivel();
+        
+        catalogoModulos.invalidar();
+        
+        assertNotSame(anterior, catalogoModulos.snapshot());
+        verify(moduloRepository, times(2)).findAllComRegras();
+    }
+    
+    private Cache cacheDeSegundoNivel() {
+        SessionFactory sessionFactory = mock(SessionFactory.class);
+        Cache cache = mock(Cache.class);
+        when(entityManagerFactory.unwrap(SessionFactory.class)).thenReturn(sessionFactory);
+        when(sessionFactory.getCache()).thenReturn(cache);
+        return cache;
+    }
+    
+    private void versao(long versao) {
+        when(catalogoVersaoRepository.findById(CatalogoVersao.ID))
+            .thenReturn(Optional.of(new CatalogoVersao(CatalogoVersao.ID, versao)));
+    }
+}
@@ -0,0 +1,177 @@
+package com.empresa.acesso.service;
+
+import com.empresa.acesso.exception.ResourceNotFoundException;
+import com.empresa.acesso.repository.ModuloAtivoUsuario;
+import com.empresa.acesso.repository.UsuarioModulosRepository;
+import com.empresa.acesso.repository.UsuarioRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class DireitosUsuariosTest {
+    
+    private UsuarioRepository usuarioRepository;
+    private UsuarioModulosRepository usuarioModulosRepository;
+    private DireitosUsuarios direitosUsuarios;
+    
+    @BeforeEach
+    void setUp() {
+        usuarioRepository = mock(UsuarioRepository.class);
+        usuarioModulosRepository = mock(UsuarioModulosRepository.class);
+        direitosUsuarios = new DireitosUsuarios(usuarioRepository, usuarioModulosRepository,
+            new SimpleMeterRegistry(), 100, Duration.ofMinutes(1));
+    }
+    
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+    
+    @Test
+    void deveCarregarDireitosUmaVezOrdenadosESemDuplicatas() {
+        when(usuarioRepository.findModulosAtivosByUsuarioId(1L))
+            .thenReturn(List.of(linha("TI", 7L), linha("TI", 3L), linha("TI", 7L)));
+        
+        DireitosUsuario primeira = direitosUsuarios.buscar(1L);
+        DireitosUsuario segunda = direitosUsuarios.buscar(1L);
+        
+        assertSame(primeira, segunda);
+        assertEquals("TI", primeira.getDepartamento());
+        assertEquals(2, primeira.quantidade());
+        assertTrue(primeira.possui(3L));
+        assertTrue(primeira.possui(7L));
+        assertFalse(primeira.possui(5L));
+        verify(usuarioRepository, times(1)).findModulosAtivosByUsuarioId(1L);
+    }
+    
+    @Test
+    void deveRepresentarUsuarioSemModulosPelaLinhaDoLeftJoin() {
+        when(usuarioRepository.findModulosAtivosByUsuarioId(1L)).thenReturn(List.of(linha("RH", null)));
+        
+        DireitosUsuario direitos = direitosUsuarios.buscar(1L);
+        
+        assertEquals("RH", direitos.getDepartamento());
+        assertEquals(0, direitos.quantidade());
+    }
+    
+    @Test
+    void deveArmazenarUsuarioInexistenteAteSerDescartado() {
+        when(usuarioRepository.findModulosAtivosByUsuarioId(1L)).thenReturn(List.of());
+        
+        assertThrows(ResourceNotFoundException.class, () -> direitosUsuarios.buscar(1L));
+        assertNull(direitosUsuarios.buscarSeExistir(1L));
+        verify(usuarioRepository, times(1)).findModulosAtivosByUsuarioId(1L);
+        
+        direitosUsuarios.descartar(Set.of(1L));
+        
+        assertNull(direitosUsuarios.buscarSeExistir(1L));
+        verify(usuarioRepository, times(2)).findModulosAtivosByUsuarioId(1L);
+    }
+    
+    @Test
+    void deveCarregarVariosUsuariosEmUmaConsultaSoParaOsQueFaltamNoCache() {
+        when(usuarioRepository.findModulosAtivosByUsuarioId(1L)).thenReturn(List.of(linha(1L, "TI", 3L)));
+        when(usuarioRepository.findModulosAtivosByUsuarioIdIn(Set.of(2L, 3L, 999L)))
+            .thenReturn(List.of(linha(2L, "RH", 4L), linha(3L, "TI", null), linha(2L, "RH", 5L)));
+        DireitosUsuario primeiro = direitosUsuarios.buscar(1L);
+        
+        Map<Long, DireitosUsuario> direitos = direitosUsuarios.buscarTodos(List.of(1L, 2L, 3L, 999L));
+        
+        assertEquals(Set.of(1L, 2L, 3L), direitos.keySet());
+        assertSame(primeiro, direitos.get(1L));
+        assertEquals(2, direitos.get(2L).quantidade());
+        assertEquals(0, direitos.get(3L).quantidade());
+        
+        // Todos já em cache, inclusive o inexistente
+        assertEquals(direitos, direitosUsuarios.buscarTodos(Set.of(1L, 2L, 3L, 999L)));
+        verify(usuarioRepository, times(1)).findModulosAtivosByUsuarioIdIn(any());
+    }
+    
+    @Test
+    void deveLerDoBancoNaTransacaoQueAlterouEDescartarAoFinal() {
+        when(usuarioRepository.findModulosAtivosByUsuarioId(1L))
+            .thenReturn(List.of(linha("TI", 3L)), List.of(linha("TI", 3L), linha("TI", 4L)));
+        DireitosUsuario antes = direitosUsuarios.buscar(1L);
+        
+        TransactionSynchronizationManager.initSynchronization();
+        direitosUsuarios.conceder(1L, Set.of(4L));
+        
+        verify(usuarioModulosRepository).conceder(1L, Set.of(4L));
+        assertTrue(direitosUsuarios.buscar(1L).possui(4L));
+        
+        // Outras threads seguem com o snapshot em cache até o fim da transação
+        assertSame(antes, CompletableFuture.supplyAsync(() -> direitosUsuarios.buscar(1L)).join());
+        
+        List<TransactionSynchronization> sincronizacoes = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        sincronizacoes.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        
+        assertTrue(direitosUsuarios.buscar(1L).possui(4L));
+        verify(usuarioRepository, times(3)).findModulosAtivosByUsuarioId(1L);
+    }
+    
+    @Test
+    void deveTravarELerDoBancoAntesDeUmaGravacaoMesmoComCache() {
+        when(usuarioRepository.findModulosAtivosByUsuarioId(1L))
+            .thenReturn(List.of(linha("TI", 3L)), List.of(linha("TI", 3L), linha("TI", 4L)));
+        when(usuarioRepository.travar(1L)).thenReturn(Optional.of(1L));
+        direitosUsuarios.buscar(1L);
+        
+        assertTrue(direitosUsuarios.buscarParaAlteracao(1L).possui(4L));
+        
+        verify(usuarioRepository).travar(1L);
+        when(usuarioRepository.travar(2L)).thenReturn(Optional.empty());
+        assertThrows(ResourceNotFoundException.class, () -> direitosUsuarios.buscarParaAlteracao(2L));
+    }
+    
+    @Test
+    void naoDeveGravarQuandoNaoHaModulos() {
+        direitosUsuarios.conceder(1L, Set.of());
+        direitosUsuarios.revogar(1L, Set.of());
+        
+        verifyNoInteractions(usuarioModulosRepository);
+    }
+    
+    private ModuloAtivoUsuario linha(String departamento, Long moduloId) {
+        return linha(1L, departamento, moduloId);
+    }
+    
+    private ModuloAtivoUsuario linha(Long usuarioId, String departamento, Long moduloId) {
+        return new ModuloAtivoUsuario() {
+            @Override
+            public Long getUsuarioId() {
+                return usuarioId;
+            }
+            
+            @Override
+            public String getDepartamento() {
+                return departamento;
+            }
+            
+            @Override
+            public Boolean getAtivo() {
+                return true;
+            }
+            
+            @Override
+            public Long getModuloId() {
+                return moduloId;
+            }
+        };
+    }
+}
@@ -2,7 +2,6 @@ package com.empresa.acesso.service;
 
 import com.empresa.acesso.dto.ModuloResponse;
 import com.empresa.acesso.entity.Modulo;
-import com.empresa.acesso.repository.ModuloRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -21,7 +20,7 @@ import static org.mockito.Mockito.*;
 class ModuloServiceTest {
     
     @Mock
-    private ModuloRepository moduloRepository;
+    private CatalogoModulos catalogoModulos;
     
     @InjectMocks
     private ModuloService moduloService;
@@ -52,27 +51,29 @@ class ModuloServiceTest {
     
     @Test
     void deveListarModulosDisponiveisComSucesso() {
-        when(moduloRepository.findByAtivoTrue()).thenReturn(List.of(modulo1, modulo2));
+        when(catalogoModulos.snapshot()).thenReturn(CatalogoSnapshot.de(1L, List.of(modulo1, modulo2)));
         
-        List<ModuloResponse> response = moduloService.listarModulosDisponiveis();
+        List<ModuloResponse> response = moduloService.listarModulosDisponiveis(moduloService.catalogo());
         
         assertNotNull(response);
         assertEquals(2, response.size());
         assertEquals("Portal", response.get(0).getNome());
         assertEquals("Relatórios", response.get(1).getNome());
         
-        verify(moduloRepository).findByAtivoTrue();
+        verify(catalogoModulos).snapshot();
     }
     
     @Test
     void deveRetornarListaVaziaQuandoNaoHaModulosAtivos() {
-        when(moduloRepository.findByAtivoTrue()).thenReturn(List.of());
+        modulo1.setAtivo(false);
+        modulo2.setAtivo(false);
+        when(catalogoModulos.snapshot()).thenReturn(CatalogoSnapshot.de(1L, List.of(modulo1, modulo2)));
         
-        List<ModuloResponse> response = moduloService.listarModulosDisponiveis();
+        List<ModuloResponse> response = moduloService.listarModulosDisponiveis(moduloService.catalogo());
         
         assertNotNull(response);
         assertTrue(response.isEmpty());
         
-        verify(moduloRepository).findByAtivoTrue();
+        verify(catalogoModulos).snapshot();
     }
 }
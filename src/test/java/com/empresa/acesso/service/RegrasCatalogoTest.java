@@ -0,0 +1,72 @@
+package com.empresa.acesso.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RegrasCatalogoTest {
+    
+    private RegrasCatalogo regras;
+    
+    @BeforeEach
+    void setUp() {
+        // 130 módulos para ocupar três palavras de 64 bits; ids não contíguos
+        List<ModuloCatalogo> modulos = new ArrayList<>();
+        for (long i = 1; i <= 130; i++) {
+            long id = i * 10;
+            modulos.add(ModuloCatalogo.builder()
+                .id(id)
+                .nome("Módulo " + id)
+                .descricao("Módulo " + id)
+                .ativo(true)
+                .departamentosPermitidos(id == 1300 ? Set.of("TI") : Set.of("TI", "RH"))
+                .modulosIncompativeis(id == 10 ? Set.of(1290L, 9999L) : Set.of())
+                .build());
+        }
+        regras = RegrasCatalogo.compilar(modulos);
+    }
+    
+    @Test
+    void deveAprovarQuandoTodasAsRegrasSaoAtendidas() {
+        assertNull(regras.validar("RH", Set.of(20L, 650L), Set.of(30L, 700L, 1290L), 5));
+    }
+    
+    @Test
+    void deveNegarDepartamentoSemPermissao() {
+        assertEquals(RegrasCatalogo.MOTIVO_DEPARTAMENTO, regras.validar("RH", Set.of(), Set.of(30L, 1300L), 5));
+        assertEquals(RegrasCatalogo.MOTIVO_DEPARTAMENTO, regras.validar("Financeiro", Set.of(), Set.of(30L), 5));
+        assertNull(regras.validar("TI", Set.of(), Set.of(30L, 1300L), 5));
+    }
+    
+    @Test
+    void deveNegarModuloIncompativelComModuloAtivo() {
+        assertEquals(RegrasCatalogo.MOTIVO_INCOMPATIBILIDADE, regras.validar("TI", Set.of(1290L), Set.of(10L), 5));
+    }
+    
+    @Test
+    void deveNegarModulosIncompativeisNaMesmaSolicitacao() {
+        assertEquals(RegrasCatalogo.MOTIVO_INCOMPATIBILIDADE, regras.validar("TI", Set.of(), Set.of(10L, 1290L), 5));
+    }
+    
+    @Test
+    void deveConsiderarIncompatibilidadeApenasNoSentidoCadastrado() {
+        // Apenas o módulo 10 declara a incompatibilidade, como na regra original
+        assertNull(regras.validar("TI", Set.of(10L), Set.of(1290L), 5));
+    }
+    
+    @Test
+    void deveNegarQuandoLimiteUltrapassado() {
+        assertEquals(RegrasCatalogo.MOTIVO_LIMITE, regras.validar("RH", Set.of(20L, 30L, 640L), Set.of(650L, 660L, 1280L), 5));
+        assertNull(regras.validar("RH", Set.of(20L, 30L, 640L), Set.of(650L, 660L), 5));
+    }
+    
+    @Test
+    void deveContarModulosAtivosForaDoCatalogoNoLimite() {
+        assertEquals(RegrasCatalogo.MOTIVO_LIMITE, regras.validar("RH", Set.of(20L, 5L, 7L), Set.of(650L, 660L, 670L), 5));
+    }
+}
@@ -3,6 +3,7 @@ package com.empresa.acesso.service;
 import com.empresa.acesso.dto.CancelarSolicitacaoRequest;
 import com.empresa.acesso.dto.CriarSolicitacaoRequest;
 import com.empresa.acesso.dto.CriarSolicitacaoResponse;
+import com.empresa.acesso.dto.ResultadoSolicitacaoLoteResponse;
 import com.empresa.acesso.entity.Modulo;
 import com.empresa.acesso.entity.Solicitacao;
 import com.empresa.acesso.entity.Usuario;
@@ -10,6 +11,7 @@ import com.empresa.acesso.entity.enums.StatusSolicitacao;
 import com.empresa.acesso.exception.BusinessException;
 import com.empresa.acesso.exception.ResourceNotFoundException;
 import com.empresa.acesso.repository.ModuloRepository;
+import com.empresa.acesso.repository.SolicitacaoLoteRepository;
 import com.empresa.acesso.repository.SolicitacaoRepository;
 import com.empresa.acesso.repository.UsuarioRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -26,6 +28,7 @@ import java.util.Optional;
 import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
@@ -41,6 +44,18 @@ class SolicitacaoServiceTest {
     @Mock
     private ModuloRepository moduloRepository;
     
+    @Mock
+    private GeradorProtocolo geradorProtocolo;
+    
+    @Mock
+    private CatalogoModulos catalogoModulos;
+    
+    @Mock
+    private SolicitacaoLoteRepository solicitacaoLoteRepository;
+    
+    @Mock
+    private DireitosUsuarios direitosUsuarios;
+    
     @InjectMocks
     private SolicitacaoService solicitacaoService;
     
@@ -86,28 +101,71 @@ class SolicitacaoServiceTest {
             .urgente(false)
             .build();
         
-        when(usuarioRepository.findByEmail(eq("teste@empresa.com"))).thenReturn(Optional.of(usuario));
-        when(moduloRepository.findAllById(eq(Set.of(1L, 2L)))).thenReturn(List.of(modulo1, modulo2));
-        when(solicitacaoRepository.existsSolicitacaoAtivaParaModulo(eq(1L), eq(1L))).thenReturn(false);
-        when(solicitacaoRepository.existsSolicitacaoAtivaParaModulo(eq(1L), eq(2L))).thenReturn(false);
-        when(solicitacaoRepository.count()).thenReturn(0L);
-        when(usuarioRepository.save(eq(usuario))).thenReturn(usuario);
+        when(direitosUsuarios.buscarParaAlteracao(eq(1L))).thenReturn(DireitosUsuario.de(1L, "TI", true, new long[0]));
+        when(usuarioRepository.getReferenceById(eq(1L))).thenReturn(usuario);
+        when(catalogoModulos.snapshot()).thenReturn(CatalogoSnapshot.de(1L, List.of(modulo1, modulo2)));
+        when(moduloRepository.getReferenceById(eq(1L))).thenReturn(modulo1);
+        when(moduloRepository.getReferenceById(eq(2L))).thenReturn(modulo2);
+        when(solicitacaoRepository.findModuloIdsComSolicitacaoAtiva(eq(1L), eq(Set.of(1L, 2L)))).thenReturn(Set.of());
+        when(geradorProtocolo.gerar()).thenReturn("SOL-20241118-0001");
         when(solicitacaoRepository.save(any(Solicitacao.class))).thenAnswer(invocation -> {
             Solicitacao s = invocation.getArgument(0);
             s.setId(1L);
             return s;
         });
         
-        CriarSolicitacaoResponse response = solicitacaoService.criarSolicitacao(request, "teste@empresa.com");
+        CriarSolicitacaoResponse response = solicitacaoService.criarSolicitacao(request, 1L);
         
         assertNotNull(response);
         assertTrue(response.getMensagem().contains("Solicitação criada com sucesso"));
         assertNotNull(response.getProtocolo());
         
-        verify(usuarioRepository).findByEmail(eq("teste@empresa.com"));
-        verify(moduloRepository).findAllById(eq(Set.of(1L, 2L)));
-        verify(usuarioRepository).save(eq(usuario));
+        verify(catalogoModulos).snapshot();
         verify(solicitacaoRepository).save(any(Solicitacao.class));
+        // Módulos gravados direto em usuario_modulos, sem carregar a coleção do usuário
+        verify(direitosUsuarios).conceder(eq(1L), eq(Set.of(1L, 2L)));
+        verify(usuarioRepository, never()).findById(any());
+        verify(usuarioRepository, never()).save(any());
+    }
+    
+    @Test
+    void deveAvaliarItensDoLoteEmOrdemContraUmUnicoCarregamento() {
+        List<CriarSolicitacaoRequest> requests = List.of(
+            requestPara(Set.of(1L)),
+            requestPara(Set.of(1L)),
+            requestPara(Set.of(999L)),
+            requestPara(Set.of(2L))
+        );
+        
+        when(direitosUsuarios.buscarParaAlteracao(eq(1L))).thenReturn(DireitosUsuario.de(1L, "TI", true, new long[0]));
+        when(usuarioRepository.getReferenceById(eq(1L))).thenReturn(usuario);
+        when(catalogoModulos.snapshot()).thenReturn(CatalogoSnapshot.de(1L, List.of(modulo1, modulo2)));
+        when(solicitacaoRepository.findModuloIdsComSolicitacaoAtiva(eq(1L), eq(Set.of(1L, 2L, 999L)))).thenReturn(Set.of());
+        when(geradorProtocolo.gerar()).thenReturn("SOL-20241118-0001", "SOL-20241118-0002");
+        doAnswer(invocation -> {
+            List<Solicitacao> solicitacoes = invocation.getArgument(0);
+            for (int i = 0; i < solicitacoes.size(); i++) {
+                solicitacoes.get(i).setId(10L + i);
+            }
+            return null;
+        }).when(solicitacaoLoteRepository).inserir(anyList());
+        
+        List<ResultadoSolicitacaoLoteResponse> resultados = solicitacaoService.criarSolicitacoesEmLote(requests, 1L);
+        
+        assertEquals(4, resultados.size());
+        assertEquals(StatusSolicitacao.ATIVO, resultados.get(0).getStatus());
+        assertEquals(10L, resultados.get(0).getSolicitacaoId());
+        // O primeiro item já conta como solicitação ativa para o segundo
+        assertNull(resultados.get(1).getStatus());
+        assertEquals("Já existe solicitação ativa para o módulo: Portal", resultados.get(1).getMensagem());
+        assertEquals("Um ou mais módulos não foram encontrados", resultados.get(2).getMensagem());
+        assertEquals(StatusSolicitacao.ATIVO, resultados.get(3).getStatus());
+        assertEquals("SOL-20241118-0002", resultados.get(3).getProtocolo());
+        
+        verify(direitosUsuarios, times(1)).buscarParaAlteracao(eq(1L));
+        verify(solicitacaoRepository, times(1)).findModuloIdsComSolicitacaoAtiva(eq(1L), any());
+        verify(direitosUsuarios).conceder(eq(1L), eq(Set.of(1L, 2L)));
+        verify(solicitacaoRepository, never()).save(any(Solicitacao.class));
     }
     
     @Test
@@ -136,23 +194,26 @@ class SolicitacaoServiceTest {
             .urgente(false)
             .build();
         
-        when(usuarioRepository.findByEmail(eq("financeiro@empresa.com"))).thenReturn(Optional.of(usuarioFinanceiro));
-        when(moduloRepository.findAllById(eq(Set.of(10L)))).thenReturn(List.of(moduloAuditoria));
-        when(solicitacaoRepository.existsSolicitacaoAtivaParaModulo(eq(2L), eq(10L))).thenReturn(false);
-        when(solicitacaoRepository.count()).thenReturn(0L);
+        when(direitosUsuarios.buscarParaAlteracao(eq(2L))).thenReturn(DireitosUsuario.de(2L, "Financeiro", true, new long[0]));
+        when(usuarioRepository.getReferenceById(eq(2L))).thenReturn(usuarioFinanceiro);
+        when(catalogoModulos.snapshot()).thenReturn(CatalogoSnapshot.de(1L, List.of(moduloAuditoria)));
+        when(moduloRepository.getReferenceById(eq(10L))).thenReturn(moduloAuditoria);
+        when(solicitacaoRepository.findModuloIdsComSolicitacaoAtiva(eq(2L), eq(Set.of(10L)))).thenReturn(Set.of());
+        when(geradorProtocolo.gerar()).thenReturn("SOL-20241118-0001");
         when(solicitacaoRepository.save(any(Solicitacao.class))).thenAnswer(invocation -> {
             Solicitacao s = invocation.getArgument(0);
             s.setId(1L);
             return s;
         });
         
-        CriarSolicitacaoResponse response = solicitacaoService.criarSolicitacao(request, "financeiro@empresa.com");
+        CriarSolicitacaoResponse response = solicitacaoService.criarSolicitacao(request, 2L);
         
         assertNotNull(response);
         assertTrue(response.getMensagem().contains("Solicitação negada"));
         assertTrue(response.getMensagem().contains("Departamento sem permissão"));
         
         verify(solicitacaoRepository).save(any(Solicitacao.class));
+        verify(direitosUsuarios, never()).conceder(any(), any());
     }
     
     @Test
@@ -163,15 +224,15 @@ class SolicitacaoServiceTest {
             .urgente(false)
             .build();
         
-        when(usuarioRepository.findByEmail(eq("teste@empresa.com"))).thenReturn(Optional.of(usuario));
-        when(moduloRepository.findAllById(eq(Set.of(1L, 999L)))).thenReturn(List.of(modulo1));
+        when(direitosUsuarios.buscarParaAlteracao(eq(1L))).thenReturn(DireitosUsuario.de(1L, "TI", true, new long[0]));
+        when(catalogoModulos.snapshot()).thenReturn(CatalogoSnapshot.de(1L, List.of(modulo1)));
         
         assertThrows(BusinessException.class, () -> 
-            solicitacaoService.criarSolicitacao(request, "teste@empresa.com")
+            solicitacaoService.criarSolicitacao(request, 1L)
         );
         
-        verify(usuarioRepository).findByEmail(eq("teste@empresa.com"));
-        verify(moduloRepository).findAllById(eq(Set.of(1L, 999L)));
+        verify(direitosUsuarios).buscarParaAlteracao(eq(1L));
+        verify(catalogoModulos).snapshot();
     }
     
     @Test
@@ -184,11 +245,11 @@ class SolicitacaoServiceTest {
             .urgente(false)
             .build();
         
-        when(usuarioRepository.findByEmail(eq("teste@empresa.com"))).thenReturn(Optional.of(usuario));
-        when(moduloRepository.findAllById(eq(Set.of(1L)))).thenReturn(List.of(modulo1));
+        when(direitosUsuarios.buscarParaAlteracao(eq(1L))).thenReturn(DireitosUsuario.de(1L, "TI", true, new long[0]));
+        when(catalogoModulos.snapshot()).thenReturn(CatalogoSnapshot.de(1L, List.of(modulo1)));
         
         assertThrows(BusinessException.class, () -> 
-            solicitacaoService.criarSolicitacao(request, "teste@empresa.com")
+            solicitacaoService.criarSolicitacao(request, 1L)
         );
     }
     
@@ -200,31 +261,29 @@ class SolicitacaoServiceTest {
             .urgente(false)
             .build();
         
-        when(usuarioRepository.findByEmail(eq("teste@empresa.com"))).thenReturn(Optional.of(usuario));
-        when(moduloRepository.findAllById(eq(Set.of(1L)))).thenReturn(List.of(modulo1));
-        when(solicitacaoRepository.existsSolicitacaoAtivaParaModulo(eq(1L), eq(1L))).thenReturn(true);
+        when(direitosUsuarios.buscarParaAlteracao(eq(1L))).thenReturn(DireitosUsuario.de(1L, "TI", true, new long[0]));
+        when(catalogoModulos.snapshot()).thenReturn(CatalogoSnapshot.de(1L, List.of(modulo1)));
+        when(solicitacaoRepository.findModuloIdsComSolicitacaoAtiva(eq(1L), eq(Set.of(1L)))).thenReturn(Set.of(1L));
         
         assertThrows(BusinessException.class, () -> 
-            solicitacaoService.criarSolicitacao(request, "teste@empresa.com")
+            solicitacaoService.criarSolicitacao(request, 1L)
         );
     }
     
     @Test
     void deveLancarExcecaoQuandoUsuarioJaPossuiAcesso() {
-        usuario.getModulosAtivos().add(modulo1);
-        
         CriarSolicitacaoRequest request = CriarSolicitacaoRequest.builder()
             .moduloIds(Set.of(1L))
             .justificativa("Preciso acessar este módulo para realizar minhas atividades")
             .urgente(false)
             .build();
         
-        when(usuarioRepository.findByEmail(eq("teste@empresa.com"))).thenReturn(Optional.of(usuario));
-        when(moduloRepository.findAllById(eq(Set.of(1L)))).thenReturn(List.of(modulo1));
-        when(solicitacaoRepository.existsSolicitacaoAtivaParaModulo(eq(1L), eq(1L))).thenReturn(false);
+        when(direitosUsuarios.buscarParaAlteracao(eq(1L))).thenReturn(DireitosUsuario.de(1L, "TI", true, new long[] {1L}));
+        when(catalogoModulos.snapshot()).thenReturn(CatalogoSnapshot.de(1L, List.of(modulo1)));
+        when(solicitacaoRepository.findModuloIdsComSolicitacaoAtiva(eq(1L), eq(Set.of(1L)))).thenReturn(Set.of());
         
         assertThrows(BusinessException.class, () -> 
-            solicitacaoService.criarSolicitacao(request, "teste@empresa.com")
+            solicitacaoService.criarSolicitacao(request, 1L)
         );
     }
     
@@ -239,24 +298,20 @@ class SolicitacaoServiceTest {
             .dataSolicitacao(LocalDateTime.now())
             .build();
         
-        usuario.getModulosAtivos().add(modulo1);
-        
         CancelarSolicitacaoRequest request = CancelarSolicitacaoRequest.builder()
             .motivo("Não preciso mais deste acesso")
             .build();
         
-        when(usuarioRepository.findByEmail(eq("teste@empresa.com"))).thenReturn(Optional.of(usuario));
+        when(direitosUsuarios.buscar(eq(1L))).thenReturn(DireitosUsuario.de(1L, "TI", true, new long[] {1L}));
         when(solicitacaoRepository.findByIdAndUsuarioId(eq(1L), eq(1L))).thenReturn(Optional.of(solicitacao));
-        when(usuarioRepository.save(eq(usuario))).thenReturn(usuario);
         when(solicitacaoRepository.save(eq(solicitacao))).thenReturn(solicitacao);
         
-        solicitacaoService.cancelarSolicitacao(1L, request, "teste@empresa.com");
+        solicitacaoService.cancelarSolicitacao(1L, request, 1L);
         
         assertEquals(StatusSolicitacao.CANCELADO, solicitacao.getStatus());
         assertEquals("Não preciso mais deste acesso", solicitacao.getMotivoCancelamento());
-        assertFalse(usuario.getModulosAtivos().contains(modulo1));
         
-        verify(usuarioRepository).save(eq(usuario));
+        verify(direitosUsuarios).revogar(eq(1L), eq(Set.of(1L)));
         verify(solicitacaoRepository).save(eq(solicitacao));
     }
     
@@ -275,11 +330,11 @@ class SolicitacaoServiceTest {
             .motivo("Não preciso mais deste acesso")
             .build();
         
-        when(usuarioRepository.findByEmail(eq("teste@empresa.com"))).thenReturn(Optional.of(usuario));
+        when(direitosUsuarios.buscar(eq(1L))).thenReturn(DireitosUsuario.de(1L, "TI", true, new long[0]));
         when(solicitacaoRepository.findByIdAndUsuarioId(eq(1L), eq(1L))).thenReturn(Optional.of(solicitacao));
         
         assertThrows(BusinessException.class, () -> 
-            solicitacaoService.cancelarSolicitacao(1L, request, "teste@empresa.com")
+            solicitacaoService.cancelarSolicitacao(1L, request, 1L)
         );
     }
     
@@ -289,11 +344,19 @@ class SolicitacaoServiceTest {
             .motivo("Não preciso mais deste acesso")
             .build();
         
-        when(usuarioRepository.findByEmail(eq("teste@empresa.com"))).thenReturn(Optional.of(usuario));
+        when(direitosUsuarios.buscar(eq(1L))).thenReturn(DireitosUsuario.de(1L, "TI", true, new long[0]));
         when(solicitacaoRepository.findByIdAndUsuarioId(eq(999L), eq(1L))).thenReturn(Optional.empty());
         
         assertThrows(ResourceNotFoundException.class, () -> 
-            solicitacaoService.cancelarSolicitacao(999L, request, "teste@empresa.com")
+            solicitacaoService.cancelarSolicitacao(999L, request, 1L)
         );
     }
+    
+    private CriarSolicitacaoRequest requestPara(Set<Long> moduloIds) {
+        return CriarSolicitacaoRequest.builder()
+            .moduloIds(moduloIds)
+            .justificativa("Preciso acessar estes módulos para realizar minhas atividades diárias")
+            .urgente(false)
+            .build();
+    }
 }
@@ -7,6 +7,8 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -52,4 +54,23 @@ class JustificativaValidatorTest {
         String justificativa = "Eu preciso acessar este módulo para minhas atividades";
         assertTrue(validator.isValid(justificativa, context));
     }
+    
+    @Test
+    void deveInvalidarRepeticaoDaUltimaLetraSemDiferenciarMaiusculas() {
+        // Mesma semântica de ^texto+$: o quantificador vale para a última letra
+        assertFalse(validator.isValid("testeeeeeeeeeeeeeeeeeeee", context));
+        assertFalse(validator.isValid("  AAAAAAAAAAAAAAAAAAAAAAAA  ", context));
+        assertFalse(validator.isValid("Qwertyyyyyyyyyyyyyyyyyyy", context));
+        assertTrue(validator.isValid("testeteste", context));
+        assertTrue(validator.isValid("aa", context));
+        assertTrue(validator.isValid("xteste", context));
+    }
+    
+    @Test
+    void deveUsarListaDeTextosConfigurada() {
+        JustificativaValidator configurado = new JustificativaValidator(List.of("Pendente"));
+        
+        assertFalse(configurado.isValid("pendenteeeeeeeeeeeeeeeeee", context));
+        assertTrue(configurado.isValid("teste", context));
+    }
 }